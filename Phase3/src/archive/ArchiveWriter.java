@@ -0,0 +1,140 @@
+package archive;
+
+import pgn.PgnGame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a game archive, read back by {@link GameArchive}.
+ *
+ * Layout (version 1, big-endian): 4 bytes magic "OVLA", 1 byte version,
+ * 1 byte flags (bit 0: blocks are deflate-compressed). Then the blocks,
+ * each holding whole games as {@link GameCodec} records, every record
+ * preceded by its length as a varint. Then the block index, one entry per
+ * block: 8 bytes file offset, 4 bytes stored length, 4 bytes uncompressed
+ * length, 4 bytes game count. Last comes a fixed footer: 8 bytes index
+ * offset, 4 bytes block count, 8 bytes game count, 4 bytes magic.
+ *
+ * Blocks are cut at about {@link #BLOCK_BYTES} of records, so a reader
+ * looking up one game reads and inflates only that much.
+ */
+public class ArchiveWriter {
+    static final int MAGIC = 0x4F564C41; // "OVLA"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 1 + 1;
+    static final int INDEX_ENTRY_BYTES = 8 + 4 + 4 + 4;
+    static final int FOOTER_BYTES = 8 + 4 + 8 + 4;
+    static final int FLAG_DEFLATE = 1;
+    static final int BLOCK_BYTES = 64 << 10;
+
+    private final DataOutputStream out;
+    private final Deflater deflater;
+    private final GameCodec codec = new GameCodec();
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_BYTES + 1024);
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+    private final DataOutputStream indexOut = new DataOutputStream(index);
+    private byte[] compressed = new byte[BLOCK_BYTES];
+    private long offset;
+    private int blockGames, blockCount;
+    private long gameCount;
+
+    /**
+     * @param out destination; not closed
+     * @param compress true to deflate each block
+     * @throws IOException on write failure
+     */
+    public ArchiveWriter(OutputStream out, boolean compress) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.deflater = compress ? new Deflater() : null;
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeByte(compress ? FLAG_DEFLATE : 0);
+        offset = HEADER_BYTES;
+    }
+
+    /**
+     * Appends a game.
+     *
+     * @param game game whose moves are legal from its start position
+     * @throws IOException on write failure
+     * @throws IllegalArgumentException if a move is not legal
+     */
+    public void add(PgnGame game) throws IOException {
+        addEncoded(codec.encode(game));
+    }
+
+    /**
+     * Appends a game already encoded by a {@link GameCodec}, so that encoding
+     * can happen on other threads.
+     *
+     * @param record encoded game
+     * @throws IOException on write failure
+     */
+    public void addEncoded(byte[] record) throws IOException {
+        int n = record.length;
+        while ((n & ~0x7F) != 0) {
+            block.write((n & 0x7F) | 0x80);
+            n >>>= 7;
+        }
+        block.write(n);
+        block.write(record, 0, record.length);
+        blockGames++;
+        gameCount++;
+        if (block.size() >= BLOCK_BYTES) writeBlock();
+    }
+
+    /**
+     * @return games added so far
+     */
+    public long gameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Writes the last block, the index and the footer, and flushes.
+     *
+     * @throws IOException on write failure
+     */
+    public void finish() throws IOException {
+        if (blockGames > 0) writeBlock();
+        long indexOffset = offset;
+        index.writeTo(out);
+        out.writeLong(indexOffset);
+        out.writeInt(blockCount);
+        out.writeLong(gameCount);
+        out.writeInt(MAGIC);
+        out.flush();
+        if (deflater != null) deflater.end();
+    }
+
+    private void writeBlock() throws IOException {
+        byte[] raw = block.toByteArray();
+        int stored = raw.length;
+        if (deflater == null) {
+            out.write(raw);
+        } else {
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            stored = 0;
+            while (!deflater.finished()) {
+                if (stored == compressed.length) compressed = Arrays.copyOf(compressed, stored * 2);
+                stored += deflater.deflate(compressed, stored, compressed.length - stored);
+            }
+            out.write(compressed, 0, stored);
+        }
+        indexOut.writeLong(offset);
+        indexOut.writeInt(stored);
+        indexOut.writeInt(raw.length);
+        indexOut.writeInt(blockGames);
+        offset += stored;
+        blockCount++;
+        blockGames = 0;
+        block.reset();
+    }
+}
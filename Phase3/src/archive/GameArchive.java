@@ -0,0 +1,224 @@
+package archive;
+
+import board.Board;
+import pgn.PgnGame;
+import pgn.PgnWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Random-access reader for an archive written by {@link ArchiveWriter}.
+ *
+ * Opening reads only the footer and block index. Looking up a game finds
+ * its block by binary search, reads and inflates that block, and replays
+ * the game's move indices. The last block read is kept, so reading games
+ * in order reads each block once.
+ *
+ * A reader keeps that block and a board between calls, so it must not be
+ * shared between threads; open one per thread instead.
+ */
+public class GameArchive implements Closeable {
+    private final FileChannel channel;
+    private final boolean compressed;
+    private final long[] blockOffset;
+    private final int[] storedLength, rawLength;
+    private final long[] firstGame; // game number of each block's first game, plus the total at the end
+    private final GameCodec codec = new GameCodec();
+    private final Inflater inflater = new Inflater();
+
+    private int cachedBlock = -1;
+    private byte[] raw = new byte[0];
+    private int[] recordStart = new int[0];
+
+    /**
+     * Opens an archive and reads its index.
+     *
+     * @param file archive file
+     * @throws IOException if the file cannot be read or is not an archive
+     */
+    public GameArchive(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < ArchiveWriter.HEADER_BYTES + ArchiveWriter.FOOTER_BYTES) throw new IOException("Not a game archive: " + file);
+            ByteBuffer header = read(0, ArchiveWriter.HEADER_BYTES);
+            ByteBuffer footer = read(size - ArchiveWriter.FOOTER_BYTES, ArchiveWriter.FOOTER_BYTES);
+            if (header.getInt(0) != ArchiveWriter.MAGIC || footer.getInt(20) != ArchiveWriter.MAGIC) {
+                throw new IOException("Not a game archive: " + file);
+            }
+            int version = header.get(4) & 0xFF;
+            if (version != ArchiveWriter.VERSION) throw new IOException("Unsupported archive version " + version);
+            compressed = (header.get(5) & ArchiveWriter.FLAG_DEFLATE) != 0;
+
+            long indexOffset = footer.getLong(0);
+            int blocks = footer.getInt(8);
+            long games = footer.getLong(12);
+            if (blocks < 0 || indexOffset + (long) blocks * ArchiveWriter.INDEX_ENTRY_BYTES != size - ArchiveWriter.FOOTER_BYTES) {
+                throw new IOException("Corrupt archive index: " + file);
+            }
+            ByteBuffer index = read(indexOffset, blocks * ArchiveWriter.INDEX_ENTRY_BYTES);
+            blockOffset = new long[blocks];
+            storedLength = new int[blocks];
+            rawLength = new int[blocks];
+            firstGame = new long[blocks + 1];
+            for (int i = 0; i < blocks; i++) {
+                blockOffset[i] = index.getLong();
+                storedLength[i] = index.getInt();
+                rawLength[i] = index.getInt();
+                firstGame[i + 1] = firstGame[i] + index.getInt();
+            }
+            if (firstGame[blocks] != games) throw new IOException("Corrupt archive index: " + file);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of games in the archive
+     */
+    public long gameCount() {
+        return firstGame[firstGame.length - 1];
+    }
+
+    /**
+     * Reads a game.
+     *
+     * @param n game number, 0 for the first
+     * @return the game's tags, result and packed moves
+     * @throws IOException on read failure or a corrupt block
+     */
+    public PgnGame game(long n) throws IOException {
+        int i = locate(n);
+        return decode(recordStart[i], null);
+    }
+
+    /**
+     * Replays a game onto a new board.
+     *
+     * @param n game number, 0 for the first
+     * @return the board after the game's last move, with the moves in its history
+     * @throws IOException on read failure or a corrupt block
+     */
+    public Board replay(long n) throws IOException {
+        int i = locate(n);
+        Board board = new Board();
+        decode(recordStart[i], board);
+        return board;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    private PgnGame decode(int offset, Board board) throws IOException {
+        try {
+            return codec.decode(raw, offset, board);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt game record in block " + cachedBlock, e);
+        }
+    }
+
+    /**
+     * Loads the block holding a game.
+     *
+     * @return index of the game within the block
+     */
+    private int locate(long n) throws IOException {
+        if (n < 0 || n >= gameCount()) throw new IndexOutOfBoundsException("Game " + n + " of " + gameCount());
+        int b = Arrays.binarySearch(firstGame, n);
+        if (b < 0) b = -b - 2;
+        while (firstGame[b + 1] == n) b++; // skip empty blocks
+        if (b != cachedBlock) load(b);
+        return (int) (n - firstGame[b]);
+    }
+
+    private void load(int b) throws IOException {
+        cachedBlock = -1;
+        ByteBuffer stored = read(blockOffset[b], storedLength[b]);
+        if (raw.length < rawLength[b]) raw = new byte[rawLength[b]];
+        if (compressed) {
+            inflater.reset();
+            inflater.setInput(stored.array(), 0, storedLength[b]);
+            try {
+                if (inflater.inflate(raw, 0, rawLength[b]) != rawLength[b] || !inflater.finished()) {
+                    throw new IOException("Corrupt archive block " + b);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt archive block " + b, e);
+            }
+        } else {
+            stored.get(raw, 0, rawLength[b]);
+        }
+
+        int games = (int) (firstGame[b + 1] - firstGame[b]);
+        if (recordStart.length < games) recordStart = new int[games];
+        int p = 0;
+        for (int g = 0; g < games; g++) {
+            int length = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (p >= rawLength[b] || shift > 28) throw new IOException("Corrupt archive block " + b);
+                int x = raw[p++] & 0xFF;
+                length |= (x & 0x7F) << shift;
+                if (x < 0x80) break;
+            }
+            recordStart[g] = p;
+            p += length;
+        }
+        if (p != rawLength[b]) throw new IOException("Corrupt archive block " + b);
+        cachedBlock = b;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) throw new IOException("Truncated game archive");
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Command line entry point: prints one game as PGN, or reads every game
+     * and reports the archive's size per game and the scan speed.
+     * Usage: GameArchive archive [game-number]
+     *
+     * @param args command line arguments
+     * @throws IOException on read failure
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: GameArchive archive [game-number]");
+            System.exit(1);
+        }
+        Path file = Paths.get(args[0]);
+        try (GameArchive archive = new GameArchive(file)) {
+            if (args.length == 2) {
+                PgnWriter writer = new PgnWriter(Channels.newChannel(System.out));
+                writer.write(archive.game(Long.parseLong(args[1])));
+                writer.flush();
+                return;
+            }
+            long start = System.nanoTime(), moves = 0;
+            for (long n = 0; n < archive.gameCount(); n++) moves += archive.game(n).moveCount();
+            double secs = (System.nanoTime() - start) / 1e9;
+            long bytes = archive.channel.size();
+            System.out.printf("%,d games, %,d moves, %,d bytes (%.1f bytes/game), %d blocks%s; read in %.2f s (%,.0f games/s)%n",
+                    archive.gameCount(), moves, bytes, bytes / (double) Math.max(1, archive.gameCount()),
+                    archive.blockOffset.length, archive.compressed ? " compressed" : "", secs,
+                    archive.gameCount() / Math.max(secs, 1e-9));
+        }
+    }
+}
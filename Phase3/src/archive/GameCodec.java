@@ -0,0 +1,219 @@
+package archive;
+
+import board.Board;
+import board.Move;
+import board.Position;
+import pgn.PgnGame;
+import pieces.Piece;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Encodes one game as an archive record and decodes it again.
+ *
+ * Each move is stored as one byte: its index among the moves the side to
+ * move's pieces can make by their movement rules, ignoring check, sorted
+ * by {@link Move#pack()}. That order depends only on the position, so a
+ * reader replaying the game finds the same list, and building it needs no
+ * test for check, which keeps decoding fast. Legality is enforced when
+ * encoding: {@link #encode} refuses a move that captures a king or leaves
+ * the mover's king in check, so every record replays a legal game. An
+ * army without promotions has fewer than 255 such moves; in positions set
+ * up with more, an index of 255 or above is written as the byte 255
+ * followed by the 2-byte packed move.
+ *
+ * Record layout: 1 byte result (0 "*", 1 "1-0", 2 "0-1", 3 "1/2-1/2"),
+ * varint tag count, then for each tag its name and value as varint length
+ * plus UTF-8, then varint ply count and one byte per ply. A game with a
+ * FEN tag starts from that position.
+ *
+ * A codec reuses its buffers and board, so each thread needs its own.
+ */
+public class GameCodec {
+    static final String[] RESULTS = {"*", "1-0", "0-1", "1/2-1/2"};
+    private static final int ESCAPE = 255;
+
+    private final Board board = new Board();
+    private final long[] moveBits = new long[64]; // bit `to` of word `from` set for each move
+    private byte[] buf = new byte[1024];
+    private int len;
+    private byte[] in; // record being decoded
+    private int pos;
+
+    /**
+     * Encodes a game.
+     *
+     * @param game game whose moves are legal from its start position
+     * @return the record
+     * @throws IllegalArgumentException if a move is not legal
+     */
+    public byte[] encode(PgnGame game) {
+        len = 0;
+        put(Math.max(0, Arrays.asList(RESULTS).indexOf(game.getResult())));
+        Map<String, String> tags = game.getTags();
+        putVarint(tags.size());
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            putString(tag.getKey());
+            putString(tag.getValue());
+        }
+        putVarint(game.moveCount());
+        setStart(board, game);
+        for (int i = 0; i < game.moveCount(); i++) {
+            short packed = game.move(i);
+            int from = packed >>> 6, to = packed & 63;
+            markMoves(board);
+            Piece captured = board.getPiece(Move.unpackTo(packed));
+            if ((moveBits[from] & 1L << to) == 0 || (captured != null && captured.letter() == 'K')) {
+                throw illegal(packed, i);
+            }
+            int index = Long.bitCount(moveBits[from] & ((1L << to) - 1));
+            for (int w = 0; w < from; w++) index += Long.bitCount(moveBits[w]);
+            if (index < ESCAPE) {
+                put(index);
+            } else {
+                put(ESCAPE);
+                put(packed >>> 8);
+                put(packed);
+            }
+            String side = board.getSideToMove();
+            play(board, packed);
+            if (board.isCheck(side)) throw illegal(packed, i);
+        }
+        return Arrays.copyOf(buf, len);
+    }
+
+    /**
+     * Decodes a record, replaying its moves on a board.
+     *
+     * @param record bytes holding the record
+     * @param offset start of the record
+     * @param target board to set to the start position and play the moves on,
+     *               or null to use the codec's own
+     * @return the game
+     * @throws IllegalArgumentException if the record is corrupt
+     */
+    public PgnGame decode(byte[] record, int offset, Board target) {
+        in = record;
+        pos = offset;
+        try {
+            PgnGame game = new PgnGame();
+            int result = get();
+            if (result >= RESULTS.length) throw new IllegalArgumentException("Bad result code " + result);
+            game.setResult(RESULTS[result]);
+            for (int t = getVarint(); t > 0; t--) game.setTag(getString(), getString());
+
+            Board b = target != null ? target : board;
+            setStart(b, game);
+            for (int plies = getVarint(); plies > 0; plies--) {
+                int index = get();
+                short packed;
+                if (index == ESCAPE) {
+                    packed = (short) (get() << 8 | get());
+                } else {
+                    markMoves(b);
+                    packed = nthMove(index);
+                }
+                play(b, packed);
+                game.add(packed);
+            }
+            return game;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated game record", e);
+        } finally {
+            in = null;
+        }
+    }
+
+    /**
+     * Sets {@link #moveBits} to the moves of the side to move.
+     */
+    private void markMoves(Board b) {
+        Arrays.fill(moveBits, 0);
+        String side = b.getSideToMove();
+        for (int i = b.pieceCount(side) - 1; i >= 0; i--) {
+            Piece p = b.pieceAt(side, i);
+            Position from = p.getPosition();
+            long bits = 0;
+            for (Position to : p.possibleMoves(b)) bits |= 1L << (to.getRow() * 8 + to.getCol());
+            moveBits[from.getRow() * 8 + from.getCol()] = bits;
+        }
+    }
+
+    /**
+     * @return the packed move at an index in {@link #moveBits} order
+     */
+    private short nthMove(int index) {
+        for (int from = 0; from < 64; from++) {
+            long bits = moveBits[from];
+            int n = Long.bitCount(bits);
+            if (index >= n) {
+                index -= n;
+                continue;
+            }
+            for (; index > 0; index--) bits &= bits - 1;
+            return (short) (from << 6 | Long.numberOfTrailingZeros(bits));
+        }
+        throw new IllegalArgumentException("Bad move index");
+    }
+
+    private static IllegalArgumentException illegal(short packed, int ply) {
+        return new IllegalArgumentException("Move " + Move.unpackFrom(packed) + Move.unpackTo(packed)
+                + " at ply " + (ply + 1) + " is not legal");
+    }
+
+    private static void play(Board b, short packed) {
+        Position from = Move.unpackFrom(packed), to = Move.unpackTo(packed);
+        Piece piece = b.getPiece(from);
+        if (piece == null) throw new IllegalArgumentException("No piece on " + from);
+        b.makeMove(new Move(from, to, piece, b.getPiece(to)));
+    }
+
+    private static void setStart(Board b, PgnGame game) {
+        String fen = game.getTag("FEN");
+        if (fen == null) b.resetBoard();
+        else b.loadFen(fen);
+    }
+
+    private void put(int b) {
+        if (len == buf.length) buf = Arrays.copyOf(buf, len * 2);
+        buf[len++] = (byte) b;
+    }
+
+    private void putVarint(int v) {
+        while ((v & ~0x7F) != 0) {
+            put((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        put(v);
+    }
+
+    private void putString(String s) {
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        putVarint(utf8.length);
+        for (byte b : utf8) put(b);
+    }
+
+    private int get() {
+        return in[pos++] & 0xFF;
+    }
+
+    private int getVarint() {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = get();
+            v |= (b & 0x7F) << shift;
+            if (b < 0x80) return v;
+        }
+        throw new IllegalArgumentException("Bad varint");
+    }
+
+    private String getString() {
+        int n = getVarint();
+        if (n > in.length - pos) throw new IllegalArgumentException("Truncated game record");
+        String s = new String(in, pos, n, StandardCharsets.UTF_8);
+        pos += n;
+        return s;
+    }
+}
@@ -1,7 +1,11 @@
 package board;
 
+import events.GameStatusEvent;
+import events.MovePieceEvent;
 import pieces.*;
 import java.util.*;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -16,6 +20,24 @@ public class Board implements Serializable {
     private Piece[][] grid = new Piece[8][8]; // 8x8 matrix holding pieces
     private List<Piece> captured = new ArrayList<>(); // List of captured pieces
     private Stack<Move> history = new Stack<>(); // Stack to track history for undo
+    private String sideToMove = "white"; // Player whose turn it is
+    private transient GameStatus status; // Cached status of the current position, null when stale
+
+    // Piece lists: the occupied squares of each color (0 white, 1 black) in
+    // no particular order, and each occupied square's slot in its list.
+    // Kept in step with the grid by setAt and rebuilt after deserialization.
+    private transient int[][] pieceSquares = new int[2][64];
+    private transient int[] pieceCounts = new int[2];
+    private transient int[] slotOf = new int[64];
+    private transient long pieceKey; // Zobrist key of the pieces alone, kept by setAt
+
+    // Draw detection: the key and halfmove clock of every position reached,
+    // indexed by keyBase + history.size(). Entries before keyBase were
+    // carried over by copy() from positions this board cannot undo to.
+    private transient long[] keyHistory = new long[256];
+    private transient int[] clockHistory = new int[256];
+    private transient int keyBase;
+    private transient int firstFullmove = 1; // FEN move number of the first recorded position
 
     /**
      * Constructor initializes the chess board with all pieces
@@ -30,9 +52,12 @@ public class Board implements Serializable {
      * Clears grid, captured pieces, and history, then places pieces.
      */
     public void resetBoard() {
-        for (Piece[] row : grid) Arrays.fill(row, null);
+        clearGrid();
         captured.clear();
         history.clear();
+        sideToMove = "white";
+        status = null;
+        firstFullmove = 1;
 
         // Place Black pieces
         setAt(new Position(0,0), new Rook("black", new Position(0,0)));
@@ -59,6 +84,7 @@ public class Board implements Serializable {
         setAt(new Position(7,5), new Bishop("white", new Position(7,5)));
         setAt(new Position(7,6), new Knight("white", new Position(7,6)));
         setAt(new Position(7,7), new Rook("white", new Position(7,7)));
+        startKeyHistory(0);
     }
 
     /**
@@ -80,17 +106,18 @@ public class Board implements Serializable {
      * @return true if move succeeded, false otherwise
      */
     public boolean movePiece(Position from, Position to) {
+        MovePieceEvent event = new MovePieceEvent();
+        event.begin();
         Piece piece = getPiece(from);
-        if (piece == null) return false;
+        if (piece == null) return event.finish(from, to, null, null, MovePieceEvent.NO_PIECE);
 
         // Verify if the move is in the piece's legal moves
         boolean allowed = false;
         for (Position p : piece.possibleMoves(this)) {
             if (p.equals(to)) { allowed = true; break; }
         }
-        if (!allowed) return false;
-
         Piece target = getPiece(to);
+        if (!allowed) return event.finish(from, to, piece, target, MovePieceEvent.NOT_A_MOVE);
 
         // Execute move
         setAt(to, piece);
@@ -100,14 +127,332 @@ public class Board implements Serializable {
         if (isCheck(piece.getColor())) {
             setAt(from, piece);
             setAt(to, target);
-            return false;
+            return event.finish(from, to, piece, target, MovePieceEvent.INTO_CHECK);
         }
 
         // Commit move
         if (target != null) captured.add(target);
         history.push(new Move(from, to, piece, target));
+        sideToMove = opponent(piece.getColor());
+        status = null;
+        recordPosition(target != null || piece instanceof Pawn);
+
+        return event.finish(from, to, piece, target, MovePieceEvent.MOVED);
+    }
+
+    /**
+     * Plays a move produced by {@link #legalMoves} or {@link #pseudoLegalMoves}
+     * without validating it again. Used by the engine, which has already
+     * generated the move from the current position.
+     *
+     * @param move move to play
+     */
+    public void makeMove(Move move) {
+        setAt(move.to, move.movedPiece);
+        setAt(move.from, null);
+        if (move.capturedPiece != null) captured.add(move.capturedPiece);
+        history.push(move);
+        sideToMove = opponent(move.movedPiece.getColor());
+        status = null;
+        recordPosition(move.capturedPiece != null || move.movedPiece instanceof Pawn);
+    }
+
+    /**
+     * Lists every move of the given color that follows the piece movement
+     * rules, without checking whether it leaves the own king in check.
+     *
+     * @param color player color
+     * @return pseudo-legal moves
+     */
+    public List<Move> pseudoLegalMoves(String color) {
+        List<Move> moves = new ArrayList<>();
+        int side = colorIndex(color);
+        for (int i = 0; i < pieceCounts[side]; i++) {
+            Piece p = pieceAt(side, i);
+            Position from = p.getPosition();
+            for (Position to : p.possibleMoves(this)) {
+                moves.add(new Move(from, to, p, getPiece(to)));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Lists the pseudo-legal captures of the given color without
+     * generating any quiet moves.
+     *
+     * @param color player color
+     * @return pseudo-legal capturing moves
+     */
+    public List<Move> captureMoves(String color) {
+        List<Move> moves = new ArrayList<>();
+        int side = colorIndex(color);
+        for (int i = 0; i < pieceCounts[side]; i++) {
+            Piece p = pieceAt(side, i);
+            for (Position to : p.captureMoves(this)) moves.add(new Move(p.getPosition(), to, p, getPiece(to)));
+        }
+        return moves;
+    }
+
+    /**
+     * Lists the pseudo-legal non-capturing moves of the given color.
+     *
+     * @param color player color
+     * @return pseudo-legal quiet moves
+     */
+    public List<Move> quietMoves(String color) {
+        List<Move> moves = new ArrayList<>();
+        int side = colorIndex(color);
+        for (int i = 0; i < pieceCounts[side]; i++) {
+            Piece p = pieceAt(side, i);
+            for (Position to : p.possibleMoves(this)) {
+                if (getPiece(to) == null) moves.add(new Move(p.getPosition(), to, p, null));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Lists every legal move of the given color.
+     *
+     * @param color player color
+     * @return legal moves
+     */
+    public List<Move> legalMoves(String color) {
+        List<Move> moves = pseudoLegalMoves(color);
+        moves.removeIf(m -> {
+            setAt(m.to, m.movedPiece);
+            setAt(m.from, null);
+            boolean illegal = isCheck(color);
+            setAt(m.from, m.movedPiece);
+            setAt(m.to, m.capturedPiece);
+            return illegal;
+        });
+        return moves;
+    }
+
+    /**
+     * Replaces the position with the one described by a FEN string.
+     * Castling rights and the en passant square are read but ignored
+     * because those rules are not part of this game; the halfmove clock,
+     * if present, starts the fifty-move count.
+     *
+     * The string is read in one pass, without splitting it into fields
+     * first, into a scratch array; the board is only changed once the whole
+     * string has been checked, so a malformed FEN leaves it as it was.
+     *
+     * @param fen position in Forsyth-Edwards Notation
+     * @throws IllegalArgumentException if the FEN is malformed: the placement
+     *         must have 8 ranks of 8 squares and one king of each color
+     */
+    public void loadFen(String fen) {
+        int n = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        Piece[] pieces = new Piece[64];
+        int r = 0, c = 0, whiteKings = 0, blackKings = 0;
+        for (; i < n && !Character.isWhitespace(fen.charAt(i)); i++) {
+            char ch = fen.charAt(i);
+            if (ch == '/') {
+                if (c != 8 || ++r > 7) throw new IllegalArgumentException("Bad FEN placement: " + fen);
+                c = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                c += ch - '0';
+                if (c > 8) throw new IllegalArgumentException("Bad FEN placement: " + fen);
+            } else {
+                if (c > 7) throw new IllegalArgumentException("Bad FEN placement: " + fen);
+                Position pos = new Position(r, c);
+                Piece p = createPiece(Character.toUpperCase(ch), Character.isUpperCase(ch) ? "white" : "black", pos);
+                if (p == null) throw new IllegalArgumentException("Bad FEN piece '" + ch + "': " + fen);
+                if (ch == 'K') whiteKings++;
+                if (ch == 'k') blackKings++;
+                pieces[r * 8 + c++] = p;
+            }
+        }
+        if (r != 7 || c != 8) throw new IllegalArgumentException("Bad FEN placement: " + fen);
+        if (whiteKings != 1 || blackKings != 1) throw new IllegalArgumentException("FEN needs one king per side: " + fen);
+
+        i = skipSpaces(fen, i);
+        if (i >= n) throw new IllegalArgumentException("Incomplete FEN: " + fen);
+        char side = fen.charAt(i++);
+        if ((side != 'w' && side != 'b') || (i < n && !Character.isWhitespace(fen.charAt(i)))) {
+            throw new IllegalArgumentException("Bad FEN side to move: " + fen);
+        }
+
+        // Castling rights and en passant square
+        i = skipField(fen, skipSpaces(fen, i));
+        i = skipField(fen, skipSpaces(fen, i));
+
+        int clock = 0, fullmove = 1;
+        i = skipSpaces(fen, i);
+        if (i < n) {
+            clock = parseFenNumber(fen, i);
+            i = skipSpaces(fen, skipField(fen, i));
+            if (i < n) fullmove = Math.max(1, parseFenNumber(fen, i));
+        }
+        setUp(pieces, side == 'w' ? "white" : "black", clock);
+        firstFullmove = fullmove;
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipField(String s, int i) {
+        while (i < s.length() && !Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int parseFenNumber(String fen, int i) {
+        int value = 0, start = i;
+        for (; i < fen.length() && !Character.isWhitespace(fen.charAt(i)); i++) {
+            char ch = fen.charAt(i);
+            if (ch < '0' || ch > '9' || i - start > 6) throw new IllegalArgumentException("Bad FEN move counter: " + fen);
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Describes the current position in Forsyth-Edwards Notation.
+     * Castling and en passant are always "-" since this game has neither.
+     *
+     * @return FEN string with all six fields
+     */
+    public String toFen() {
+        StringBuilder sb = new StringBuilder(90);
+        for (int r = 0; r < 8; r++) {
+            int empty = 0;
+            for (int c = 0; c < 8; c++) {
+                Piece p = grid[r][c];
+                if (p == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char letter = p.letter();
+                sb.append(p.getColor().equals("white") ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) sb.append((char) ('0' + empty));
+            if (r < 7) sb.append('/');
+        }
+        sb.append(getSideToMove().equals("white") ? " w - - " : " b - - ");
+        return sb.append(getHalfmoveClock()).append(' ').append(fullmoveNumber()).toString();
+    }
 
-        return true;
+    /**
+     * Counts full moves from the first recorded position, as in FEN.
+     *
+     * @return the number of the current full move, starting at 1
+     */
+    public int fullmoveNumber() {
+        String first = history.isEmpty() ? getSideToMove() : history.get(0).movedPiece.getColor();
+        int plies = history.size() + (first.equals("black") ? 1 : 0);
+        return Math.max(1, firstFullmove) + plies / 2;
+    }
+
+    /**
+     * Replaces the position with the given pieces, as read from a save file.
+     *
+     * @param pieces piece per square index (row * 8 + col), null for empty
+     * @param side color to move
+     * @param halfmoveClock halfmoves since the last capture or pawn move
+     */
+    void setUp(Piece[] pieces, String side, int halfmoveClock) {
+        clearGrid();
+        captured.clear();
+        history.clear();
+        status = null;
+        for (int sq = 0; sq < 64; sq++) {
+            if (pieces[sq] != null) setAt(new Position(sq >> 3, sq & 7), pieces[sq]);
+        }
+        sideToMove = side;
+        firstFullmove = 1;
+        startKeyHistory(halfmoveClock);
+    }
+
+    /**
+     * Creates an independent board holding the same position and side to move.
+     * The copy starts with an empty history, so it cannot undo past this position.
+     *
+     * @return a new board
+     */
+    public Board copy() {
+        Board b = new Board();
+        b.clearGrid();
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < pieceCounts[i]; j++) {
+                Piece p = pieceAt(i, j);
+                Position pos = p.getPosition();
+                b.setAt(pos, createPiece(p.letter(), p.getColor(), pos));
+            }
+        }
+        b.sideToMove = getSideToMove();
+        b.firstFullmove = fullmoveNumber();
+
+        // Bring along the positions that can still repeat
+        int now = keyBase + history.size();
+        int n = Math.min(clockHistory[now], now);
+        b.ensureKeyCapacity(n + 1);
+        System.arraycopy(keyHistory, now - n, b.keyHistory, 0, n + 1);
+        System.arraycopy(clockHistory, now - n, b.clockHistory, 0, n + 1);
+        b.keyBase = n;
+        return b;
+    }
+
+    /**
+     * Creates an independent board holding the position before the first
+     * move in this board's history, with an empty history of its own.
+     * Replaying {@link #getHistory()} on it reaches the current position.
+     *
+     * @return a new board at the start of the recorded game
+     */
+    public Board copyAtStart() {
+        Board b = copy();
+        for (int i = history.size() - 1; i >= 0; i--) {
+            Move m = history.get(i);
+            Piece moved = m.movedPiece, taken = m.capturedPiece;
+            b.setAt(m.from, createPiece(moved.letter(), moved.getColor(), m.from));
+            b.setAt(m.to, taken == null ? null : createPiece(taken.letter(), taken.getColor(), m.to));
+        }
+        if (!history.isEmpty()) b.sideToMove = history.get(0).movedPiece.getColor();
+        b.ensureKeyCapacity(keyBase + 1);
+        System.arraycopy(keyHistory, 0, b.keyHistory, 0, keyBase + 1);
+        System.arraycopy(clockHistory, 0, b.clockHistory, 0, keyBase + 1);
+        b.keyBase = keyBase;
+        b.firstFullmove = firstFullmove;
+        return b;
+    }
+
+    /**
+     * @return the moves played on this board, oldest first (read-only)
+     */
+    public List<Move> getHistory() {
+        return Collections.unmodifiableList(history);
+    }
+
+    /**
+     * Creates a piece from its notation letter.
+     *
+     * @param letter upper-case letter (P, N, B, R, Q, K)
+     * @param color "white" or "black"
+     * @param pos initial position
+     * @return the new piece, or null for an unknown letter
+     */
+    static Piece createPiece(char letter, String color, Position pos) {
+        switch (letter) {
+            case 'P': return new Pawn(color, pos);
+            case 'N': return new Knight(color, pos);
+            case 'B': return new Bishop(color, pos);
+            case 'R': return new Rook(color, pos);
+            case 'Q': return new Queen(color, pos);
+            case 'K': return new King(color, pos);
+            default: return null;
+        }
     }
 
     /**
@@ -128,10 +473,87 @@ public class Board implements Serializable {
         if (last.capturedPiece != null) {
             captured.remove(last.capturedPiece);
         }
+        sideToMove = last.movedPiece.getColor();
+        status = null;
 
         return last;
     }
 
+    /**
+     * Returns the color of the player who moves next.
+     * Boards saved before the side to move was tracked derive it
+     * from the length of the move history.
+     *
+     * @return "white" or "black"
+     */
+    public String getSideToMove() {
+        if (sideToMove == null) {
+            sideToMove = history.size() % 2 == 0 ? "white" : "black";
+        }
+        return sideToMove;
+    }
+
+    /**
+     * Returns the Zobrist key of the current position, covering
+     * piece placement and the side to move. The piece part is kept up to
+     * date as pieces move, so this is O(1).
+     *
+     * @return 64-bit position key
+     */
+    public long positionKey() {
+        return getSideToMove().equals("black") ? pieceKey ^ Zobrist.blackToMove() : pieceKey;
+    }
+
+    /**
+     * Returns the number of halfmoves since the last capture or pawn move,
+     * as counted for the fifty-move rule.
+     *
+     * @return halfmove clock
+     */
+    public int getHalfmoveClock() {
+        return clockHistory[keyBase + history.size()];
+    }
+
+    /**
+     * Counts how many times the current position occurred earlier in the
+     * game with the same side to move. Only positions since the last
+     * capture or pawn move can match, so this looks back at most
+     * {@link #getHalfmoveClock()} entries and is cheap enough for every
+     * search node.
+     *
+     * @return number of earlier occurrences
+     */
+    public int repetitions() {
+        int now = keyBase + history.size();
+        int oldest = Math.max(0, now - clockHistory[now]);
+        long key = keyHistory[now];
+        int count = 0;
+        for (int i = now - 2; i >= oldest; i -= 2) {
+            if (keyHistory[i] == key) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Determines if the game is drawn by threefold repetition or by the
+     * fifty-move rule. Checkmate and stalemate are not considered here.
+     *
+     * @return true if either draw rule applies
+     */
+    public boolean isDrawByRule() {
+        return getHalfmoveClock() >= 100 || repetitions() >= 2;
+    }
+
+    /**
+     * Returns the opposing color.
+     *
+     * @param color "white" or "black"
+     * @return the other color
+     */
+    public static String opponent(String color) {
+        return color.equals("white") ? "black" : "white";
+    }
+
     /**
      * Checks if the given color's king is in check.
      *
@@ -142,19 +564,37 @@ public class Board implements Serializable {
         Position kingPos = findKing(color);
         if (kingPos == null) return false;
 
-        String enemy = color.equals("white") ? "black" : "white";
-
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = grid[r][c];
-                if (p == null || !p.getColor().equals(enemy)) continue;
+        int enemy = 1 - colorIndex(color);
+        for (int i = 0; i < pieceCounts[enemy]; i++) {
+            if (pieceAt(enemy, i).canMoveTo(this, kingPos)) return true;
+        }
+        return false;
+    }
 
-                for (Position d : p.possibleMoves(this)) {
-                    if (d.equals(kingPos)) return true;
-                }
+    /**
+     * Returns the status of the current position for the side to move.
+     * It is computed with one legal move generation the first time it is
+     * asked for and cached until the next move, undo or reset.
+     *
+     * @return check, legal move count and game-over state
+     */
+    public GameStatus status() {
+        if (status == null) {
+            GameStatusEvent event = new GameStatusEvent();
+            event.begin();
+            String side = getSideToMove();
+            boolean inCheck = isCheck(side);
+            status = new GameStatus(side, inCheck, legalMoves(side).size(),
+                    repetitions() >= 2, getHalfmoveClock() >= 100);
+            if (event.shouldCommit()) {
+                event.sideToMove = side;
+                event.inCheck = inCheck;
+                event.legalMoves = status.legalMoveCount;
+                event.state = status.state.name();
+                event.commit();
             }
         }
-        return false;
+        return status;
     }
 
     /**
@@ -164,6 +604,7 @@ public class Board implements Serializable {
      * @return true if no legal move can escape check
      */
     public boolean isCheckmate(String color) {
+        if (color.equals(getSideToMove())) return status().isCheckmate();
         if (!isCheck(color)) return false;
         return !hasLegalMoves(color);
     }
@@ -176,6 +617,7 @@ public class Board implements Serializable {
      * @return true if stalemate
      */
     public boolean isStalemate(String color) {
+        if (color.equals(getSideToMove())) return status().isStalemate();
         if (isCheck(color)) return false;
         return !hasLegalMoves(color);
     }
@@ -187,25 +629,23 @@ public class Board implements Serializable {
      * @return true if at least one legal move exists
      */
     private boolean hasLegalMoves(String color) {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = grid[r][c];
-                if (p == null || !p.getColor().equals(color)) continue;
-
-                Position from = new Position(r, c);
-                for (Position to : p.possibleMoves(this)) {
-                    Piece target = getPiece(to);
+        int side = colorIndex(color);
+        // Trying a move and taking it back leaves this color's list in its original order
+        for (int i = 0; i < pieceCounts[side]; i++) {
+            Piece p = pieceAt(side, i);
+            Position from = p.getPosition();
+            for (Position to : p.possibleMoves(this)) {
+                Piece target = getPiece(to);
 
-                    setAt(to, p);
-                    setAt(from, null);
+                setAt(to, p);
+                setAt(from, null);
 
-                    boolean stillCheck = isCheck(color);
+                boolean stillCheck = isCheck(color);
 
-                    setAt(from, p);
-                    setAt(to, target);
+                setAt(from, p);
+                setAt(to, target);
 
-                    if (!stillCheck) return true;
-                }
+                if (!stillCheck) return true;
             }
         }
         return false;
@@ -227,12 +667,146 @@ public class Board implements Serializable {
         }
     }
 
+    /**
+     * Returns the number of pieces a color has on the board.
+     * Together with {@link #pieceAt(String, int)} this walks the pieces
+     * without scanning empty squares or allocating.
+     *
+     * @param color "white" or "black"
+     * @return number of pieces
+     */
+    public int pieceCount(String color) {
+        return pieceCounts[colorIndex(color)];
+    }
+
+    /**
+     * Returns one of a color's pieces. The order is arbitrary and changes
+     * as pieces move, so indices are only valid until the next change.
+     *
+     * @param color "white" or "black"
+     * @param index 0 to {@link #pieceCount(String)} - 1
+     * @return the piece
+     */
+    public Piece pieceAt(String color, int index) {
+        return pieceAt(colorIndex(color), index);
+    }
+
+    private Piece pieceAt(int side, int index) {
+        int sq = pieceSquares[side][index];
+        return grid[sq >> 3][sq & 7];
+    }
+
+    private static int colorIndex(String color) {
+        return color.equals("white") ? 0 : 1;
+    }
+
     /**
      * Places a piece at a position and updates coordinates.
+     * The piece lists follow in O(1): the old occupant's square leaves its
+     * color's list (the last entry takes its slot) and the new one is appended.
      */
     private void setAt(Position pos, Piece piece) {
+        int sq = square(pos);
+        Piece old = grid[pos.getRow()][pos.getCol()];
+        if (old != null) {
+            pieceKey ^= Zobrist.piece(old, sq);
+            int side = colorIndex(old.getColor());
+            int slot = slotOf[sq];
+            int last = pieceSquares[side][--pieceCounts[side]];
+            pieceSquares[side][slot] = last;
+            slotOf[last] = slot;
+        }
         grid[pos.getRow()][pos.getCol()] = piece;
-        if (piece != null) piece.move(pos);
+        if (piece != null) {
+            pieceKey ^= Zobrist.piece(piece, sq);
+            int side = colorIndex(piece.getColor());
+            slotOf[sq] = pieceCounts[side];
+            pieceSquares[side][pieceCounts[side]++] = sq;
+            piece.move(pos);
+        }
+    }
+
+    /**
+     * Empties every square and both piece lists.
+     */
+    private void clearGrid() {
+        for (Piece[] row : grid) Arrays.fill(row, null);
+        pieceCounts[0] = pieceCounts[1] = 0;
+        pieceKey = 0L;
+    }
+
+    /**
+     * Makes the current position the first entry of the key history.
+     */
+    private void startKeyHistory(int halfmoveClock) {
+        keyBase = 0;
+        ensureKeyCapacity(history.size() + 1);
+        keyHistory[0] = positionKey();
+        clockHistory[0] = halfmoveClock;
+    }
+
+    /**
+     * Appends the position just reached to the key history.
+     *
+     * @param irreversible true after a capture or pawn move, which resets the clock
+     */
+    private void recordPosition(boolean irreversible) {
+        int now = keyBase + history.size();
+        ensureKeyCapacity(now + 1);
+        keyHistory[now] = positionKey();
+        clockHistory[now] = irreversible ? 0 : clockHistory[now - 1] + 1;
+    }
+
+    private void ensureKeyCapacity(int size) {
+        if (size > keyHistory.length) {
+            int n = Math.max(size, keyHistory.length * 2);
+            keyHistory = Arrays.copyOf(keyHistory, n);
+            clockHistory = Arrays.copyOf(clockHistory, n);
+        }
+    }
+
+    /**
+     * Rebuilds the piece lists and key history from the grid and move
+     * history, which is all that saved games contain.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        pieceSquares = new int[2][64];
+        pieceCounts = new int[2];
+        slotOf = new int[64];
+        pieceKey = 0L;
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = grid[sq >> 3][sq & 7];
+            if (p == null) continue;
+            int side = colorIndex(p.getColor());
+            slotOf[sq] = pieceCounts[side];
+            pieceSquares[side][pieceCounts[side]++] = sq;
+            pieceKey ^= Zobrist.piece(p, sq);
+        }
+
+        // Walk the history backwards for the keys, then forwards for the clocks
+        int n = history.size();
+        keyHistory = new long[Math.max(256, n + 1)];
+        clockHistory = new int[keyHistory.length];
+        keyBase = 0;
+        long key = positionKey();
+        for (int i = n; i >= 0; i--) {
+            keyHistory[i] = key;
+            if (i == 0) break;
+            Move m = history.get(i - 1);
+            key ^= Zobrist.blackToMove()
+                    ^ Zobrist.piece(m.movedPiece, square(m.to))
+                    ^ Zobrist.piece(m.movedPiece, square(m.from));
+            if (m.capturedPiece != null) key ^= Zobrist.piece(m.capturedPiece, square(m.to));
+        }
+        for (int i = 1; i <= n; i++) {
+            Move m = history.get(i - 1);
+            clockHistory[i] = m.capturedPiece != null || m.movedPiece instanceof Pawn ? 0 : clockHistory[i - 1] + 1;
+        }
+    }
+
+    private static int square(Position p) {
+        return p.getRow() * 8 + p.getCol();
     }
 
     /**
@@ -242,13 +816,10 @@ public class Board implements Serializable {
      * @return position of the king, or null if not found
      */
     private Position findKing(String color) {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = grid[r][c];
-                if (p instanceof King && p.getColor().equals(color)) {
-                    return new Position(r, c);
-                }
-            }
+        int side = colorIndex(color);
+        for (int i = 0; i < pieceCounts[side]; i++) {
+            Piece p = pieceAt(side, i);
+            if (p instanceof King) return p.getPosition();
         }
         return null;
     }
@@ -0,0 +1,47 @@
+package board;
+
+/**
+ * Status of a position for the side to move: whether it is in check,
+ * how many legal moves it has, and whether the game is over by
+ * checkmate, stalemate, threefold repetition or the fifty-move rule.
+ * Computed by {@link Board#status()}.
+ */
+public final class GameStatus {
+
+    /** Outcome of the position. */
+    public enum State { PLAYING, CHECKMATE, STALEMATE, REPETITION, FIFTY_MOVES }
+
+    public final String sideToMove;
+    public final boolean inCheck;
+    public final int legalMoveCount;
+    public final State state;
+
+    GameStatus(String sideToMove, boolean inCheck, int legalMoveCount, boolean threefold, boolean fiftyMoves) {
+        this.sideToMove = sideToMove;
+        this.inCheck = inCheck;
+        this.legalMoveCount = legalMoveCount;
+        if (legalMoveCount == 0) state = inCheck ? State.CHECKMATE : State.STALEMATE; // mate takes precedence
+        else if (threefold) state = State.REPETITION;
+        else if (fiftyMoves) state = State.FIFTY_MOVES;
+        else state = State.PLAYING;
+    }
+
+    public boolean isCheckmate() { return state == State.CHECKMATE; }
+
+    public boolean isStalemate() { return state == State.STALEMATE; }
+
+    /**
+     * @return true for stalemate, threefold repetition or the fifty-move rule
+     */
+    public boolean isDraw() { return state != State.PLAYING && state != State.CHECKMATE; }
+
+    /**
+     * @return true if the game has ended in this position
+     */
+    public boolean isGameOver() { return state != State.PLAYING; }
+
+    @Override
+    public String toString() {
+        return sideToMove + " to move, " + state + (inCheck ? ", in check" : "") + ", " + legalMoveCount + " moves";
+    }
+}
@@ -29,4 +29,45 @@ public class Move implements Serializable {
         this.movedPiece = movedPiece;
         this.capturedPiece = capturedPiece;
     }
+
+    /**
+     * Packs a from/to pair into 12 bits (6 bits per square, square = row * 8 + col).
+     *
+     * @param from starting position
+     * @param to destination position
+     * @return packed move
+     */
+    public static short pack(Position from, Position to) {
+        return (short) (((from.getRow() * 8 + from.getCol()) << 6) | (to.getRow() * 8 + to.getCol()));
+    }
+
+    /**
+     * @param packed move created by {@link #pack}
+     * @return the starting position of the packed move
+     */
+    public static Position unpackFrom(short packed) {
+        int sq = (packed >> 6) & 63;
+        return new Position(sq / 8, sq % 8);
+    }
+
+    /**
+     * @param packed move created by {@link #pack}
+     * @return the destination position of the packed move
+     */
+    public static Position unpackTo(short packed) {
+        int sq = packed & 63;
+        return new Position(sq / 8, sq % 8);
+    }
+
+    /**
+     * @return this move in packed form
+     */
+    public short pack() {
+        return pack(from, to);
+    }
+
+    @Override
+    public String toString() {
+        return from + "" + to;
+    }
 }
@@ -0,0 +1,133 @@
+package board;
+
+import pieces.Pawn;
+import pieces.Piece;
+
+/**
+ * Standard Algebraic Notation (SAN) such as "Nf3", "exd5" or "Qxe7+".
+ * Moves are formatted and resolved against the board's legal moves.
+ *
+ * Instead of generating every legal move, {@link #append} and
+ * {@link #resolve} ask the pieces of the right kind whether they reach
+ * the target square ({@link Piece#canMoveTo}), then try each of those
+ * for king safety.
+ */
+public final class San {
+
+    private San() { }
+
+    /**
+     * Formats a legal move of the side to move in SAN, including a
+     * "+" or "#" suffix when the move gives check or mate.
+     *
+     * @param board position before the move
+     * @param move a legal move in that position
+     * @return SAN text of the move
+     */
+    public static String toSan(Board board, Move move) {
+        StringBuilder sb = new StringBuilder(8);
+        append(board, move, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the SAN of a legal move of the side to move, including a
+     * "+" or "#" suffix. Only pieces of the same kind that reach the
+     * target square are checked for disambiguation.
+     *
+     * @param board position before the move; unchanged on return
+     * @param move a legal move in that position
+     * @param sb destination
+     */
+    public static void append(Board board, Move move, StringBuilder sb) {
+        Piece p = move.movedPiece;
+        Position to = move.to;
+        if (p instanceof Pawn) {
+            if (move.capturedPiece != null) sb.append((char) ('a' + move.from.getCol())).append('x');
+        } else {
+            sb.append(p.letter());
+            boolean clash = false, sameFile = false, sameRank = false;
+            String side = p.getColor();
+            for (int i = board.pieceCount(side) - 1; i >= 0; i--) {
+                Piece other = board.pieceAt(side, i);
+                if (other == p || other.letter() != p.letter()) continue;
+                if (!other.canMoveTo(board, to) || !isLegal(board, other, to)) continue;
+                clash = true;
+                if (other.getPosition().getCol() == move.from.getCol()) sameFile = true;
+                if (other.getPosition().getRow() == move.from.getRow()) sameRank = true;
+            }
+            if (clash) {
+                if (!sameFile) sb.append((char) ('a' + move.from.getCol()));
+                else if (!sameRank) sb.append((char) ('8' - move.from.getRow()));
+                else sb.append((char) ('a' + move.from.getCol())).append((char) ('8' - move.from.getRow()));
+            }
+            if (move.capturedPiece != null) sb.append('x');
+        }
+        sb.append((char) ('a' + to.getCol())).append((char) ('8' - to.getRow()));
+
+        board.makeMove(move);
+        if (board.isCheck(board.getSideToMove())) sb.append(board.status().isCheckmate() ? '#' : '+');
+        board.undo();
+    }
+
+    /**
+     * Finds the legal move of the side to move written in SAN by looking only
+     * at the pieces of the named kind that reach the target square, then
+     * trying each of them for king safety. Suffixes such as "+", "#", "!"
+     * and "?" are ignored.
+     * Castling and promotion are not part of this game and give null.
+     *
+     * @param board current position
+     * @param san move text
+     * @return the move, or null if it is illegal, ambiguous or cannot be parsed
+     */
+    public static Move resolve(Board board, CharSequence san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) end--;
+        if (end < 2) return null;
+
+        int start = 0;
+        char letter = 'P';
+        if ("NBRQK".indexOf(san.charAt(0)) >= 0) {
+            letter = san.charAt(0);
+            start = 1;
+        }
+        char file = san.charAt(end - 2), rank = san.charAt(end - 1);
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') return null;
+        Position to = new Position('8' - rank, file - 'a');
+
+        int fromCol = -1, fromRow = -1;
+        for (int i = start; i < end - 2; i++) {
+            char ch = san.charAt(i);
+            if (ch >= 'a' && ch <= 'h') fromCol = ch - 'a';
+            else if (ch >= '1' && ch <= '8') fromRow = '8' - ch;
+            else if (ch != 'x' && ch != '-') return null;
+        }
+
+        Piece target = board.getPiece(to);
+        if (target != null && target.letter() == 'K') return null;
+
+        String side = board.getSideToMove();
+        Piece found = null;
+        for (int i = board.pieceCount(side) - 1; i >= 0; i--) {
+            Piece p = board.pieceAt(side, i);
+            if (p.letter() != letter) continue;
+            Position from = p.getPosition();
+            if ((fromCol >= 0 && from.getCol() != fromCol) || (fromRow >= 0 && from.getRow() != fromRow)) continue;
+            if (!p.canMoveTo(board, to) || !isLegal(board, p, to)) continue;
+            if (found != null) return null; // ambiguous
+            found = p;
+        }
+        return found == null ? null : new Move(found.getPosition(), to, found, target);
+    }
+
+    /**
+     * Tries a move and reports whether it leaves the mover's king safe.
+     */
+    private static boolean isLegal(Board board, Piece p, Position to) {
+        board.makeMove(new Move(p.getPosition(), to, p, board.getPiece(to)));
+        boolean legal = !board.isCheck(p.getColor());
+        board.undo();
+        return legal;
+    }
+}
@@ -0,0 +1,246 @@
+package board;
+
+import pieces.Piece;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+
+/**
+ * Compact binary format for saved games, replacing Java serialization of
+ * the whole {@link Board} object graph.
+ *
+ * Layout (version 1, big-endian):
+ * 4 bytes magic "OVLS", 1 byte version, 1 byte flags (0).
+ * 32 bytes starting position, two squares per byte (A8 in the high nibble
+ * of byte 0, then row by row); nibble 0 is empty, 1-6 White P N B R Q K,
+ * 9-14 Black.
+ * 1 byte side to move (0 White, 1 Black), 2 bytes halfmove clock.
+ * Then one 2-byte packed move ({@link Move#pack()}) per ply, ended by 0,
+ * which is never a real move.
+ *
+ * A game of n plies takes 43 + 2n bytes. Because the move list is
+ * terminated rather than counted, a {@link Writer} can append moves as
+ * they are played and a {@link Reader} can replay them as they arrive.
+ */
+public final class SaveFile {
+    public static final int MAGIC = 0x4F564C53; // "OVLS"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 41;
+    private static final String KINDS = "PNBRQK";
+
+    private SaveFile() { }
+
+    /**
+     * Writes a whole game: the position before its first move, then its history.
+     *
+     * @param board game to save; not modified
+     * @param out destination; not closed
+     * @throws IOException on write failure
+     */
+    public static void write(Board board, OutputStream out) throws IOException {
+        Writer w = new Writer(out, board.copyAtStart());
+        for (Move m : board.getHistory()) w.append(m);
+        w.finish();
+    }
+
+    /**
+     * Reads a whole game, replaying its moves on the starting position.
+     *
+     * @param in source positioned at the magic number; not closed
+     * @return the board after the last move, with the moves in its history
+     * @throws IOException on read failure, a bad header or an illegal move
+     */
+    public static Board read(InputStream in) throws IOException {
+        Reader r = new Reader(in);
+        Board board = r.start();
+        short packed;
+        while ((packed = r.nextMove()) != 0) play(board, packed);
+        return board;
+    }
+
+    /**
+     * Reads a game in this format or, for files saved by older versions,
+     * as a serialized {@link Board}.
+     *
+     * @param in source at the start of the file; not closed
+     * @return the loaded board
+     * @throws IOException on read failure or if the file is neither format
+     */
+    public static Board readAny(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(4);
+        byte[] head = buffered.readNBytes(4);
+        buffered.reset();
+        if (isSaveFile(head)) return read(buffered);
+        try {
+            Object o = new ObjectInputStream(buffered).readObject();
+            if (!(o instanceof Board)) throw new IOException("Not a saved game: " + o.getClass().getName());
+            return (Board) o;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Not a saved game", e);
+        }
+    }
+
+    /**
+     * Checks the first bytes of a file for the magic number.
+     *
+     * @param head at least the first 4 bytes of the file
+     * @return true if it is in this format
+     */
+    public static boolean isSaveFile(byte[] head) {
+        return head.length >= 4
+                && ((head[0] & 0xFF) << 24 | (head[1] & 0xFF) << 16 | (head[2] & 0xFF) << 8 | (head[3] & 0xFF)) == MAGIC;
+    }
+
+    /**
+     * Plays a packed move after checking that it follows the piece's
+     * movement rules and does not leave the own king in check.
+     *
+     * @throws IOException if the move is not legal
+     */
+    static void play(Board board, short packed) throws IOException {
+        Position from = Move.unpackFrom(packed), to = Move.unpackTo(packed);
+        Piece piece = board.getPiece(from);
+        String side = board.getSideToMove();
+        if (piece == null || !piece.getColor().equals(side)) throw new IOException("Illegal move in save file: " + from + to);
+        boolean allowed = false;
+        for (Position p : piece.possibleMoves(board)) {
+            if (p.equals(to)) { allowed = true; break; }
+        }
+        if (!allowed) throw new IOException("Illegal move in save file: " + from + to);
+        board.makeMove(new Move(from, to, piece, board.getPiece(to)));
+        if (board.isCheck(side)) {
+            board.undo();
+            throw new IOException("Illegal move in save file: " + from + to);
+        }
+    }
+
+    /**
+     * Writes the header when created, then one move per {@link #append}.
+     * The output is usable after {@link #finish()}.
+     */
+    public static class Writer {
+        private final DataOutputStream out;
+
+        /**
+         * @param out destination; not closed
+         * @param start position before the first move
+         * @throws IOException on write failure
+         */
+        public Writer(OutputStream out, Board start) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+            this.out.writeByte(0);
+            byte[] squares = new byte[32];
+            for (int sq = 0; sq < 64; sq += 2) {
+                squares[sq >> 1] = (byte) (nibble(start.getPiece(new Position(sq >> 3, sq & 7))) << 4
+                        | nibble(start.getPiece(new Position((sq + 1) >> 3, (sq + 1) & 7))));
+            }
+            this.out.write(squares);
+            this.out.writeByte(start.getSideToMove().equals("white") ? 0 : 1);
+            this.out.writeShort(Math.min(start.getHalfmoveClock(), 0xFFFF));
+        }
+
+        /**
+         * @param move next move of the game
+         * @throws IOException on write failure
+         */
+        public void append(Move move) throws IOException {
+            out.writeShort(move.pack());
+        }
+
+        /**
+         * @param packed next move of the game, as from {@link Move#pack()}
+         * @throws IOException on write failure
+         */
+        public void append(short packed) throws IOException {
+            out.writeShort(packed);
+        }
+
+        /**
+         * Writes the end marker and flushes.
+         *
+         * @throws IOException on write failure
+         */
+        public void finish() throws IOException {
+            out.writeShort(0);
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads the header when created, then one packed move per {@link #nextMove}.
+     */
+    public static class Reader {
+        private final DataInputStream in;
+        private final Board start;
+        private boolean done;
+
+        /**
+         * @param in source positioned at the magic number; not closed
+         * @throws IOException on read failure or a bad header
+         */
+        public Reader(InputStream in) throws IOException {
+            this.in = new DataInputStream(in);
+            try {
+                if (this.in.readInt() != MAGIC) throw new IOException("Not a saved game");
+                int version = this.in.readUnsignedByte();
+                if (version != VERSION) throw new IOException("Unsupported save version " + version);
+                this.in.readUnsignedByte(); // flags, none defined yet
+
+                byte[] squares = new byte[32];
+                this.in.readFully(squares);
+                Piece[] pieces = new Piece[64];
+                for (int sq = 0; sq < 64; sq++) {
+                    int code = (squares[sq >> 1] >> ((sq & 1) == 0 ? 4 : 0)) & 0xF;
+                    if (code == 0) continue;
+                    if ((code & 7) == 0 || (code & 7) > 6) throw new IOException("Bad square code " + code);
+                    Position pos = new Position(sq >> 3, sq & 7);
+                    pieces[sq] = Board.createPiece(KINDS.charAt((code & 7) - 1), code < 8 ? "white" : "black", pos);
+                }
+                int side = this.in.readUnsignedByte();
+                if (side > 1) throw new IOException("Bad side to move " + side);
+                int clock = this.in.readUnsignedShort();
+
+                start = new Board();
+                start.setUp(pieces, side == 0 ? "white" : "black", clock);
+            } catch (EOFException e) {
+                throw new IOException("Truncated save file", e);
+            }
+        }
+
+        /**
+         * @return the position before the first move; moves may be played on it
+         */
+        public Board start() {
+            return start;
+        }
+
+        /**
+         * @return the next packed move, or 0 at the end of the game
+         * @throws IOException on read failure or a missing end marker
+         */
+        public short nextMove() throws IOException {
+            if (done) return 0;
+            try {
+                short packed = in.readShort();
+                if (packed == 0) done = true;
+                return packed;
+            } catch (EOFException e) {
+                throw new IOException("Truncated save file", e);
+            }
+        }
+    }
+
+    private static int nibble(Piece p) {
+        if (p == null) return 0;
+        return KINDS.indexOf(p.letter()) + 1 + (p.getColor().equals("white") ? 0 : 8);
+    }
+}
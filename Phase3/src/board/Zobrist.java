@@ -0,0 +1,40 @@
+package board;
+
+import pieces.Piece;
+import java.util.SplittableRandom;
+
+/**
+ * Random keys used to hash board positions (Zobrist hashing).
+ * A position key is the XOR of one key per occupied square
+ * plus a key for black to move. The seed is fixed so keys are
+ * stable across runs and can be stored in files.
+ */
+final class Zobrist {
+    private static final long[] PIECE_KEYS = new long[2 * 6 * 64];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom rnd = new SplittableRandom(0x0DDBA11C0FFEEL);
+        for (int i = 0; i < PIECE_KEYS.length; i++) PIECE_KEYS[i] = rnd.nextLong();
+        BLACK_TO_MOVE = rnd.nextLong();
+    }
+
+    private Zobrist() { }
+
+    /**
+     * @param p piece on the square
+     * @param square square index (row * 8 + col)
+     * @return key for that piece on that square
+     */
+    static long piece(Piece p, int square) {
+        int side = p.getColor().equals("white") ? 0 : 1;
+        return PIECE_KEYS[(side * 6 + p.kind()) * 64 + square];
+    }
+
+    /**
+     * @return key toggled when black is to move
+     */
+    static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
@@ -0,0 +1,361 @@
+package book;
+
+import board.Board;
+import board.Move;
+import board.Position;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds an opening book from a large collection of games.
+ *
+ * Games are streamed from text files, one game per line: the result
+ * ("1-0", "0-1" or "1/2-1/2") followed by coordinate moves such as
+ * "E2E4 E7E5". Worker threads replay the first plies of every game on
+ * their own {@link Board}, count results per (position key, move) in an
+ * {@link OffHeapStatsMap}, and spill sorted runs to disk whenever the map
+ * is full. The runs are finally merged into a single sorted book file.
+ *
+ * Memory use is bounded by the configured budget no matter how many
+ * games are read.
+ */
+public class BookBuilder {
+    static final int MAGIC = 0x4F56424B; // "OVBK"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 4 + 2 + 8;
+
+    private static final int BATCH_SIZE = 512; // lines handed to a worker at once
+    private static final int MERGE_FAN_IN = 64; // runs merged per pass
+
+    private final int threads;
+    private final long memoryBytes;
+    private final int maxPlies;
+    private final int minGames;
+    private final File tempDir;
+
+    private final AtomicLong gamesRead = new AtomicLong();
+    private final AtomicLong movesCounted = new AtomicLong();
+    private final List<File> runs = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * @param threads number of replay workers
+     * @param memoryBytes total off-heap budget shared by all workers
+     * @param maxPlies number of plies of each game that enter the book
+     * @param minGames minimum games a move needs to be kept
+     * @param tempDir directory for spill runs
+     */
+    public BookBuilder(int threads, long memoryBytes, int maxPlies, int minGames, File tempDir) {
+        this.threads = threads;
+        this.memoryBytes = memoryBytes;
+        this.maxPlies = maxPlies;
+        this.minGames = minGames;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Reads all games from the inputs and writes the merged book.
+     *
+     * @param inputs game files
+     * @param output book file to create
+     * @return number of book entries written
+     * @throws IOException if reading, spilling or merging fails
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public long build(List<File> inputs, File output) throws IOException, InterruptedException {
+        BlockingQueue<List<String>> queue = new ArrayBlockingQueue<>(threads * 4);
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Worker w = new Worker(i, queue, memoryBytes / threads);
+            workers.add(w);
+            w.start();
+        }
+
+        // Stream the input files into batches; the bounded queue applies back-pressure
+        try {
+            for (File f : inputs) {
+                try (BufferedReader in = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+                    List<String> batch = new ArrayList<>(BATCH_SIZE);
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (line.isBlank()) continue;
+                        batch.add(line);
+                        if (batch.size() == BATCH_SIZE) {
+                            queue.put(batch);
+                            batch = new ArrayList<>(BATCH_SIZE);
+                        }
+                    }
+                    if (!batch.isEmpty()) queue.put(batch);
+                }
+            }
+        } finally {
+            for (int i = 0; i < threads; i++) queue.put(Collections.emptyList());
+        }
+
+        for (Worker w : workers) {
+            w.join();
+            if (w.failure != null) throw w.failure;
+        }
+        return merge(new ArrayList<>(runs), output);
+    }
+
+    /**
+     * Replays batches of games and spills its map when it fills up.
+     */
+    private class Worker extends Thread {
+        private final BlockingQueue<List<String>> queue;
+        private final OffHeapStatsMap map;
+        private final Board board = new Board();
+        private IOException failure;
+
+        Worker(int id, BlockingQueue<List<String>> queue, long bytes) {
+            super("book-worker-" + id);
+            this.queue = queue;
+            this.map = new OffHeapStatsMap(bytes);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    List<String> batch = queue.take();
+                    if (batch.isEmpty()) break;
+                    for (String line : batch) replay(line);
+                }
+                if (map.size() > 0) spill();
+            } catch (IOException e) {
+                fail(e);
+            } catch (RuntimeException e) {
+                fail(new IOException(getName() + " failed", e));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Records the failure, then discards batches up to this worker's end
+         * marker so the reader never blocks on a full queue and the other
+         * workers still get theirs.
+         */
+        private void fail(IOException e) {
+            failure = e;
+            try {
+                while (!queue.take().isEmpty()) { }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void replay(String line) throws IOException {
+            String[] tokens = line.trim().split("\\s+");
+            int whiteResult;
+            switch (tokens[0]) {
+                case "1-0": whiteResult = 1; break;
+                case "0-1": whiteResult = -1; break;
+                case "1/2-1/2": whiteResult = 0; break;
+                default: return; // unfinished or malformed game
+            }
+            gamesRead.incrementAndGet();
+
+            board.resetBoard();
+            int plies = Math.min(maxPlies, tokens.length - 1);
+            for (int i = 1; i <= plies; i++) {
+                String t = tokens[i];
+                if (t.length() != 4) return;
+                Position from, to;
+                try {
+                    from = Position.fromAlgebraic(t.substring(0, 2));
+                    to = Position.fromAlgebraic(t.substring(2, 4));
+                } catch (IllegalArgumentException e) {
+                    return;
+                }
+
+                long key = board.positionKey();
+                int result = board.getSideToMove().equals("white") ? whiteResult : -whiteResult;
+                if (!board.movePiece(from, to)) return; // illegal move ends the replay
+
+                map.add(key, Move.pack(from, to), result);
+                movesCounted.incrementAndGet();
+                if (map.isFull()) spill();
+            }
+        }
+
+        private void spill() throws IOException {
+            File run = File.createTempFile("book-run-", ".bin", tempDir);
+            run.deleteOnExit();
+            map.spill(run);
+            runs.add(run);
+        }
+    }
+
+    /**
+     * Merges sorted runs into the book file, in several passes if there
+     * are more runs than can be opened at once.
+     */
+    private long merge(List<File> pending, File output) throws IOException {
+        while (pending.size() > MERGE_FAN_IN) {
+            List<File> next = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i += MERGE_FAN_IN) {
+                List<File> group = pending.subList(i, Math.min(pending.size(), i + MERGE_FAN_IN));
+                File run = File.createTempFile("book-run-", ".bin", tempDir);
+                run.deleteOnExit();
+                try (DataOutputStream out = openOutput(run)) {
+                    mergeGroup(group, out, 1);
+                }
+                next.add(run);
+            }
+            pending = next;
+        }
+
+        long count;
+        try (DataOutputStream out = openOutput(output)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(0L); // patched below
+            count = mergeGroup(pending, out, minGames);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(output, "rw")) {
+            raf.seek(6);
+            raf.writeLong(count);
+        }
+        return count;
+    }
+
+    /**
+     * K-way merge of sorted runs, summing the counters of equal
+     * (key, move) pairs.
+     */
+    private long mergeGroup(List<File> group, DataOutputStream out, int threshold) throws IOException {
+        PriorityQueue<RunCursor> heap = new PriorityQueue<>((a, b) -> BookRecord.compare(a.current, b.current));
+        List<RunCursor> open = new ArrayList<>();
+        long written = 0;
+        try {
+            for (File f : group) {
+                RunCursor c = new RunCursor(f);
+                open.add(c);
+                if (c.advance()) heap.add(c);
+            }
+
+            BookRecord acc = new BookRecord();
+            boolean hasAcc = false;
+            while (!heap.isEmpty()) {
+                RunCursor c = heap.poll();
+                BookRecord r = c.current;
+                if (hasAcc && acc.key == r.key && acc.move == r.move) {
+                    acc.wins += r.wins;
+                    acc.draws += r.draws;
+                    acc.losses += r.losses;
+                } else {
+                    if (hasAcc && acc.games() >= threshold) {
+                        BookRecord.write(out, acc.key, acc.move, acc.wins, acc.draws, acc.losses);
+                        written++;
+                    }
+                    acc.key = r.key;
+                    acc.move = r.move;
+                    acc.wins = r.wins;
+                    acc.draws = r.draws;
+                    acc.losses = r.losses;
+                    hasAcc = true;
+                }
+                if (c.advance()) heap.add(c);
+            }
+            if (hasAcc && acc.games() >= threshold) {
+                BookRecord.write(out, acc.key, acc.move, acc.wins, acc.draws, acc.losses);
+                written++;
+            }
+        } finally {
+            for (RunCursor c : open) c.close();
+            for (File f : group) f.delete();
+        }
+        return written;
+    }
+
+    private static DataOutputStream openOutput(File f) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1 << 16));
+    }
+
+    /**
+     * Sequential reader over one sorted run.
+     */
+    private static class RunCursor implements Closeable {
+        private final DataInputStream in;
+        private final BookRecord current = new BookRecord();
+
+        RunCursor(File f) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                current.read(in);
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * @return games read so far
+     */
+    public long getGamesRead() { return gamesRead.get(); }
+
+    /**
+     * @return moves added to the book statistics so far
+     */
+    public long getMovesCounted() { return movesCounted.get(); }
+
+    /**
+     * Command line entry point.
+     * Usage: BookBuilder [-threads N] [-memory MB] [-plies N] [-min N] output.bin games.txt...
+     *
+     * @param args command line arguments
+     * @throws Exception on I/O failure
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long memoryMb = 256;
+        int plies = 24;
+        int min = 2;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                case "-memory": memoryMb = Long.parseLong(args[++i]); break;
+                case "-plies": plies = Integer.parseInt(args[++i]); break;
+                case "-min": min = Integer.parseInt(args[++i]); break;
+                default: files.add(args[i]);
+            }
+        }
+        if (files.size() < 2) {
+            System.err.println("Usage: BookBuilder [-threads N] [-memory MB] [-plies N] [-min N] output.bin games.txt...");
+            System.exit(1);
+        }
+
+        File output = new File(files.get(0));
+        List<File> inputs = new ArrayList<>();
+        for (String f : files.subList(1, files.size())) inputs.add(new File(f));
+        File tempDir = output.getAbsoluteFile().getParentFile();
+
+        BookBuilder builder = new BookBuilder(threads, memoryMb << 20, plies, min, tempDir);
+        long start = System.nanoTime();
+        long entries = builder.build(inputs, output);
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d moves, %d book entries in %.1f s (%.0f games/s)%n",
+                builder.getGamesRead(), builder.getMovesCounted(), entries, secs,
+                builder.getGamesRead() / Math.max(secs, 1e-9));
+    }
+}
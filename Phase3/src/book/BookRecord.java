@@ -0,0 +1,67 @@
+package book;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * One (position key, move) entry with its game statistics.
+ * Shared layout of spill runs and the final book file:
+ * key (8), move (2), wins (4), draws (4), losses (4).
+ */
+public class BookRecord {
+    static final int BYTES = 22;
+
+    public long key;
+    public short move;
+    public int wins;
+    public int draws;
+    public int losses;
+
+    /**
+     * @return number of games in which this move was played
+     */
+    public int games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Selection weight of the move: two points per win, one per draw.
+     *
+     * @return weight used to pick between book moves
+     */
+    public int weight() {
+        return 2 * wins + draws;
+    }
+
+    /**
+     * Reads the next record from a stream.
+     *
+     * @param in source stream
+     * @throws IOException on read failure (EOFException at end of stream)
+     */
+    void read(DataInput in) throws IOException {
+        key = in.readLong();
+        move = in.readShort();
+        wins = in.readInt();
+        draws = in.readInt();
+        losses = in.readInt();
+    }
+
+    static void write(DataOutput out, long key, short move, int wins, int draws, int losses)
+            throws IOException {
+        out.writeLong(key);
+        out.writeShort(move);
+        out.writeInt(wins);
+        out.writeInt(draws);
+        out.writeInt(losses);
+    }
+
+    /**
+     * Orders records by key, then by move.
+     */
+    static int compare(BookRecord a, BookRecord b) {
+        int c = Long.compare(a.key, b.key);
+        return c != 0 ? c : Short.compare(a.move, b.move);
+    }
+}
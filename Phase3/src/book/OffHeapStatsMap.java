@@ -0,0 +1,177 @@
+package book;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Open-addressing hash map from (position key, packed move) to
+ * win/draw/loss counters, stored in a direct (off-heap) buffer.
+ *
+ * Each slot is 24 bytes: key (8), move (2), used flag (2),
+ * wins (4), draws (4), losses (4). Results are counted from the
+ * point of view of the side that played the move.
+ * When the map fills up it is sorted in place and spilled to a run file.
+ */
+public class OffHeapStatsMap {
+    static final int SLOT_BYTES = 24;
+    private static final double MAX_LOAD = 0.7;
+
+    private final ByteBuffer slots;
+    private final int capacity; // power of two
+    private final int mask;
+    private final int maxSize;
+    private int size = 0;
+
+    /**
+     * Allocates a map that uses at most the given number of bytes.
+     *
+     * @param maxBytes memory budget for the slot array
+     */
+    public OffHeapStatsMap(long maxBytes) {
+        long slotsFit = Math.max(16, maxBytes / SLOT_BYTES);
+        int cap = Integer.highestOneBit((int) Math.min(slotsFit, 1 << 26));
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.maxSize = (int) (cap * MAX_LOAD);
+        this.slots = ByteBuffer.allocateDirect(cap * SLOT_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * @return number of distinct (key, move) pairs currently held
+     */
+    public int size() { return size; }
+
+    /**
+     * @return true when no more entries should be added before a spill
+     */
+    public boolean isFull() { return size >= maxSize; }
+
+    /**
+     * Adds one game result to the counters of a (key, move) pair.
+     *
+     * @param key position key before the move
+     * @param move packed move
+     * @param result 1 = mover won, 0 = draw, -1 = mover lost
+     */
+    public void add(long key, short move, int result) {
+        int slot = (int) (mix(key, move) & mask);
+        while (true) {
+            int base = slot * SLOT_BYTES;
+            if (slots.getShort(base + 10) == 0) {
+                slots.putLong(base, key);
+                slots.putShort(base + 8, move);
+                slots.putShort(base + 10, (short) 1);
+                slots.putInt(base + 12, 0);
+                slots.putInt(base + 16, 0);
+                slots.putInt(base + 20, 0);
+                size++;
+                bump(base, result);
+                return;
+            }
+            if (slots.getLong(base) == key && slots.getShort(base + 8) == move) {
+                bump(base, result);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void bump(int base, int result) {
+        int offset = result > 0 ? 12 : (result == 0 ? 16 : 20);
+        slots.putInt(base + offset, slots.getInt(base + offset) + 1);
+    }
+
+    /**
+     * Sorts all entries by (key, move), writes them to a run file
+     * and empties the map.
+     *
+     * @param file destination run file
+     * @throws IOException if the run cannot be written
+     */
+    public void spill(File file) throws IOException {
+        // Compact used slots to the front, then sort that prefix in place
+        int n = 0;
+        for (int s = 0; s < capacity; s++) {
+            if (slots.getShort(s * SLOT_BYTES + 10) != 0) {
+                if (s != n) copySlot(s, n);
+                n++;
+            }
+        }
+        sort(0, n - 1);
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            for (int i = 0; i < n; i++) {
+                int base = i * SLOT_BYTES;
+                BookRecord.write(out, slots.getLong(base), slots.getShort(base + 8),
+                        slots.getInt(base + 12), slots.getInt(base + 16), slots.getInt(base + 20));
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Marks every slot as empty.
+     */
+    public void clear() {
+        for (int s = 0; s < capacity; s++) slots.putShort(s * SLOT_BYTES + 10, (short) 0);
+        size = 0;
+    }
+
+    private static long mix(long key, short move) {
+        long h = key ^ (move * 0x9E3779B97F4A7C15L);
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+
+    private int compare(int a, int b) {
+        int c = Long.compare(slots.getLong(a * SLOT_BYTES), slots.getLong(b * SLOT_BYTES));
+        if (c != 0) return c;
+        return Short.compare(slots.getShort(a * SLOT_BYTES + 8), slots.getShort(b * SLOT_BYTES + 8));
+    }
+
+    /**
+     * In-place quicksort of slot records; recurses on the smaller half
+     * so stack depth stays logarithmic.
+     */
+    private void sort(int lo, int hi) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            swap(mid, hi);
+            int store = lo;
+            for (int i = lo; i < hi; i++) {
+                if (compare(i, hi) < 0) swap(i, store++);
+            }
+            swap(store, hi);
+            if (store - lo < hi - store) {
+                sort(lo, store - 1);
+                lo = store + 1;
+            } else {
+                sort(store + 1, hi);
+                hi = store - 1;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        if (a == b) return;
+        int ba = a * SLOT_BYTES, bb = b * SLOT_BYTES;
+        for (int i = 0; i < SLOT_BYTES; i += 8) {
+            long t = slots.getLong(ba + i);
+            slots.putLong(ba + i, slots.getLong(bb + i));
+            slots.putLong(bb + i, t);
+        }
+    }
+
+    private void copySlot(int from, int to) {
+        int bf = from * SLOT_BYTES, bt = to * SLOT_BYTES;
+        for (int i = 0; i < SLOT_BYTES; i += 8) slots.putLong(bt + i, slots.getLong(bf + i));
+        slots.putShort(bf + 10, (short) 0);
+    }
+}
@@ -0,0 +1,149 @@
+package book;
+
+import board.Board;
+import engine.MemoryBudget;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Read-only view of a book file written by {@link BookBuilder}.
+ * The file is memory-mapped and searched with a binary search on
+ * the position key, so opening a book costs no heap memory.
+ *
+ * A single mapping holds at most 2 GB, so the records are mapped in
+ * segments of a power-of-two number of whole records, addressed by the
+ * high bits of the record index.
+ */
+public class OpeningBook implements MemoryBudget.Cache {
+    private static final int SEGMENT_SHIFT = 26; // 2^26 records = about 1.4 GB per mapping
+
+    private final MappedByteBuffer[] segments;
+    private final long count;
+    private final long fileBytes;
+
+    /**
+     * Maps a book file.
+     *
+     * @param file book file
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public OpeningBook(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel ch = raf.getChannel()) {
+            fileBytes = ch.size();
+            if (fileBytes < BookBuilder.HEADER_BYTES) throw new IOException("Not an opening book: " + file);
+            ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, BookBuilder.HEADER_BYTES);
+            if (header.getInt(0) != BookBuilder.MAGIC) throw new IOException("Not an opening book: " + file);
+            count = header.getLong(6);
+            if (count < 0 || count > (fileBytes - BookBuilder.HEADER_BYTES) / BookRecord.BYTES) {
+                throw new IOException("Truncated opening book: " + file);
+            }
+
+            segments = new MappedByteBuffer[(int) ((count + (1L << SEGMENT_SHIFT) - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long records = Math.min(1L << SEGMENT_SHIFT, count - first);
+                segments[i] = ch.map(FileChannel.MapMode.READ_ONLY,
+                        BookBuilder.HEADER_BYTES + first * BookRecord.BYTES, records * BookRecord.BYTES);
+            }
+        }
+    }
+
+    /**
+     * @return number of (position, move) entries in the book
+     */
+    public long size() { return count; }
+
+    /**
+     * @return size of the mapped file in bytes
+     */
+    @Override
+    public long sizeInBytes() { return fileBytes; }
+
+    /**
+     * The book is a read-only mapping, so resizing has no effect.
+     */
+    @Override
+    public long resize(long bytes) { return sizeInBytes(); }
+
+    @Override
+    public boolean isResizable() { return false; }
+
+    /**
+     * Finds every book move for a position.
+     *
+     * @param key position key ({@link Board#positionKey()})
+     * @return book entries for the position, empty if it is not in the book
+     */
+    public List<BookRecord> lookup(long key) {
+        List<BookRecord> result = new ArrayList<>();
+        long lo = 0, hi = count - 1;
+        long first = -1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            long k = keyAt(mid);
+            if (k < key) lo = mid + 1;
+            else {
+                if (k == key) first = mid;
+                hi = mid - 1;
+            }
+        }
+        if (first < 0) return result;
+
+        for (long i = first; i < count && keyAt(i) == key; i++) {
+            ByteBuffer rec = record(i);
+            BookRecord r = new BookRecord();
+            r.key = rec.getLong();
+            r.move = rec.getShort();
+            r.wins = rec.getInt();
+            r.draws = rec.getInt();
+            r.losses = rec.getInt();
+            result.add(r);
+        }
+        return result;
+    }
+
+    /**
+     * Picks a book move for the board, weighted by {@link BookRecord#weight()}.
+     *
+     * @param board current position
+     * @param random source of randomness
+     * @return chosen entry, or null if the position is out of book
+     */
+    public BookRecord pick(Board board, Random random) {
+        List<BookRecord> moves = lookup(board.positionKey());
+        long total = 0;
+        for (BookRecord r : moves) total += r.weight();
+        if (total == 0) return null;
+
+        long roll = (long) (random.nextDouble() * total);
+        for (BookRecord r : moves) {
+            roll -= r.weight();
+            if (roll < 0) return r;
+        }
+        return moves.get(moves.size() - 1);
+    }
+
+    private long keyAt(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getLong(offset(index));
+    }
+
+    private ByteBuffer record(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].duplicate().position(offset(index));
+    }
+
+    /**
+     * @return byte offset of a record within its segment
+     */
+    private static int offset(long index) {
+        return (int) (index & ((1L << SEGMENT_SHIFT) - 1)) * BookRecord.BYTES;
+    }
+}
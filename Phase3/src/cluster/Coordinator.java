@@ -0,0 +1,339 @@
+package cluster;
+
+import board.Board;
+import board.Move;
+import board.San;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits perft or root-move analysis of a position into tasks and
+ * distributes them to {@link Worker} processes over TCP.
+ *
+ * Workers pull tasks from a shared queue, one root move each at first.
+ * When the queue is empty but some workers are still busy, an idle
+ * worker's handler asks the longest-running busy worker to split its task
+ * (perft only); the returned children are queued for the idle workers, so
+ * large subtrees end up shared by everyone. Results are summed per root
+ * move for perft, or collected as scores for analysis.
+ *
+ * For local testing, -spawn N starts N worker JVMs on this machine.
+ */
+public class Coordinator {
+
+    /** A unit of work: the position reached by path, searched to depth. */
+    private static class Task {
+        final int id;
+        final int depth;
+        final short[] path;
+
+        Task(int id, int depth, short[] path) {
+            this.id = id;
+            this.depth = depth;
+            this.path = path;
+        }
+    }
+
+    /** One connected worker. */
+    private class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        String name = "?";
+        Task current;          // guarded by Coordinator.this
+        long startedNanos;
+        boolean splitRequested;
+        int tasksDone;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        synchronized void sendSplit() throws IOException {
+            out.writeByte(Protocol.SPLIT);
+            out.flush();
+        }
+
+        synchronized void sendTask(Task t) throws IOException {
+            out.writeByte(Protocol.TASK);
+            out.writeInt(t.id);
+            out.writeInt(t.depth);
+            Protocol.writePath(out, t.path);
+            out.flush();
+        }
+    }
+
+    private final String fen;
+    private final byte mode;
+    private final int depth;
+
+    // Shared state, guarded by this
+    private final Deque<Task> pending = new ArrayDeque<>();
+    private final List<Connection> connections = new ArrayList<>();
+    private final Map<Short, Long> perRoot = new LinkedHashMap<>();
+    private int inFlight = 0;
+    private int nextId = 0;
+    private int splits = 0;
+    private IOException failure;
+
+    /**
+     * @param fen root position, or "startpos"
+     * @param mode {@link Protocol#MODE_PERFT} or {@link Protocol#MODE_ANALYZE}
+     * @param depth perft depth, or search depth in plies
+     */
+    public Coordinator(String fen, byte mode, int depth) {
+        this.fen = fen;
+        this.mode = mode;
+        this.depth = depth;
+    }
+
+    /**
+     * Runs the job with the workers connecting to the server socket.
+     *
+     * @param server listening socket
+     * @param workers number of workers to wait for
+     * @return per root move: leaf count for perft, score for the side to move for analysis
+     * @throws Exception if a worker fails
+     */
+    public Map<Short, Long> run(ServerSocket server, int workers) throws Exception {
+        Board board = Protocol.rootBoard(fen);
+        for (Move m : board.legalMoves(board.getSideToMove())) {
+            perRoot.put(m.pack(), mode == Protocol.MODE_PERFT ? 0L : Long.MIN_VALUE);
+            pending.add(new Task(nextId++, depth - 1, new short[] {m.pack()}));
+        }
+
+        List<Thread> handlers = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            Connection c = new Connection(server.accept());
+            c.socket.setTcpNoDelay(true);
+            synchronized (this) {
+                connections.add(c);
+            }
+            Thread t = new Thread(() -> serve(c), "coordinator-" + i);
+            handlers.add(t);
+            t.start();
+        }
+        for (Thread t : handlers) t.join();
+        if (failure != null) throw failure;
+        return perRoot;
+    }
+
+    private void serve(Connection c) {
+        try {
+            if (c.in.readByte() != Protocol.HELLO) throw new IOException("Expected HELLO");
+            c.name = c.in.readUTF();
+            synchronized (c) {
+                c.out.writeByte(Protocol.JOB);
+                c.out.writeUTF(fen);
+                c.out.writeByte(mode);
+                c.out.flush();
+            }
+
+            Task t;
+            while ((t = next(c)) != null) {
+                c.sendTask(t);
+                while (true) {
+                    byte type = c.in.readByte();
+                    if (type == Protocol.SUBTASKS) {
+                        readSubtasks(c);
+                    } else if (type == Protocol.RESULT) {
+                        int id = c.in.readInt();
+                        long value = c.in.readLong();
+                        if (id != t.id) throw new IOException("Result for unknown task " + id);
+                        finish(c, t, value);
+                        break;
+                    } else {
+                        throw new IOException("Unexpected message " + type + " from " + c.name);
+                    }
+                }
+            }
+            synchronized (c) {
+                c.out.writeByte(Protocol.QUIT);
+                c.out.flush();
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                if (failure == null) failure = new IOException("Worker " + c.name + " failed: " + e.getMessage(), e);
+                pending.clear();
+                inFlight = 0;
+                notifyAll();
+            }
+        } finally {
+            // Closing also ends a worker still blocked reading from us
+            try {
+                c.socket.close();
+            } catch (IOException ignored) {
+                // nothing more to report
+            }
+        }
+    }
+
+    /**
+     * Hands out the next task, asking a busy worker to split its task when
+     * the queue is empty. Returns null once all work is done.
+     */
+    private synchronized Task next(Connection c) throws IOException {
+        c.current = null;
+        while (true) {
+            if (failure != null) return null;
+            if (!pending.isEmpty()) {
+                Task t = pending.pollFirst();
+                c.current = t;
+                c.startedNanos = System.nanoTime();
+                c.splitRequested = false;
+                inFlight++;
+                return t;
+            }
+            if (inFlight == 0) {
+                notifyAll();
+                return null;
+            }
+            if (mode == Protocol.MODE_PERFT) requestSplit();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Asks the worker that has been busy longest on a splittable task for part of it.
+     */
+    private void requestSplit() throws IOException {
+        Connection victim = null;
+        for (Connection c : connections) {
+            if (c.current == null || c.splitRequested || c.current.depth < 2) continue;
+            if (victim == null || c.startedNanos < victim.startedNanos) victim = c;
+        }
+        if (victim != null) {
+            victim.splitRequested = true;
+            victim.sendSplit();
+        }
+    }
+
+    private void readSubtasks(Connection c) throws IOException {
+        c.in.readInt(); // id of the task they were split from
+        int count = c.in.readInt();
+        List<Task> given = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int d = c.in.readInt();
+            given.add(new Task(-1, d, Protocol.readPath(c.in)));
+        }
+        synchronized (this) {
+            for (Task g : given) pending.add(new Task(nextId++, g.depth, g.path));
+            if (count > 0) {
+                splits++;
+                c.splitRequested = false; // it may be split again later
+            }
+            notifyAll();
+        }
+    }
+
+    private synchronized void finish(Connection c, Task t, long value) {
+        short rootMove = t.path[0];
+        if (mode == Protocol.MODE_PERFT) {
+            perRoot.merge(rootMove, value, Long::sum);
+        } else {
+            perRoot.put(rootMove, -value); // the worker scored the position after the root move
+        }
+        c.current = null;
+        c.tasksDone++;
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Starts a worker JVM on this machine with the same class path.
+     */
+    static Process spawnWorker(int port) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                Worker.class.getName(), "localhost:" + port).inheritIO().start();
+    }
+
+    /**
+     * Command line entry point.
+     * Usage: Coordinator [-perft D | -analyze D] [-fen FEN] [-port P] [-workers N] [-spawn N]
+     *
+     * @param args command line arguments
+     * @throws Exception on I/O or worker failure
+     */
+    public static void main(String[] args) throws Exception {
+        byte mode = Protocol.MODE_PERFT;
+        int depth = 4, port = 9123, workers = 0, spawn = 0;
+        String fen = "startpos";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-perft": mode = Protocol.MODE_PERFT; depth = Integer.parseInt(args[++i]); break;
+                case "-analyze": mode = Protocol.MODE_ANALYZE; depth = Integer.parseInt(args[++i]); break;
+                case "-fen": fen = args[++i]; break;
+                case "-port": port = Integer.parseInt(args[++i]); break;
+                case "-workers": workers = Integer.parseInt(args[++i]); break;
+                case "-spawn": spawn = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Usage: Coordinator [-perft D | -analyze D] [-fen FEN] [-port P]"
+                            + " [-workers N] [-spawn N]");
+                    System.exit(1);
+            }
+        }
+        if (workers == 0) workers = Math.max(1, spawn);
+        if (depth < 1) depth = 1;
+
+        long start = System.nanoTime();
+        Coordinator coordinator = new Coordinator(fen, mode, depth);
+        Map<Short, Long> results;
+        List<Process> processes = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(port)) {
+            for (int i = 0; i < spawn; i++) processes.add(spawnWorker(server.getLocalPort()));
+            System.out.printf("Waiting for %d workers on port %d%n", workers, server.getLocalPort());
+            results = coordinator.run(server, workers);
+        } finally {
+            for (Process p : processes) p.waitFor();
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+
+        Board board = Protocol.rootBoard(fen);
+        if (mode == Protocol.MODE_PERFT) {
+            long total = 0;
+            for (Map.Entry<Short, Long> e : results.entrySet()) {
+                System.out.printf("%s%s: %d%n", Move.unpackFrom(e.getKey()), Move.unpackTo(e.getKey()), e.getValue());
+                total += e.getValue();
+            }
+            System.out.printf("perft(%d) = %d in %.2f s, %.0f nodes/s, %d splits%n",
+                    depth, total, secs, total / Math.max(secs, 1e-9), coordinator.splits);
+        } else {
+            short best = 0;
+            long bestScore = Long.MIN_VALUE;
+            for (Map.Entry<Short, Long> e : results.entrySet()) {
+                Move m = Protocol.find(board, e.getKey());
+                System.out.printf("%-7s %6d%n", San.toSan(board, m), e.getValue());
+                if (e.getValue() > bestScore) {
+                    bestScore = e.getValue();
+                    best = e.getKey();
+                }
+            }
+            if (!results.isEmpty()) {
+                System.out.printf("best %s (%d) at depth %d in %.2f s%n",
+                        San.toSan(board, Protocol.find(board, best)), bestScore, depth, secs);
+            }
+        }
+        for (Connection c : coordinator.connections) System.out.printf("  %s: %d tasks%n", c.name, c.tasksDone);
+    }
+}
@@ -0,0 +1,85 @@
+package cluster;
+
+import board.Board;
+import board.Move;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Messages exchanged between {@link Coordinator} and {@link Worker}
+ * over a TCP connection, written with Data streams.
+ *
+ * A task is identified by the moves leading from the job's root position
+ * to the position to examine, each move packed into a short (see
+ * {@link Move#pack()}), plus the remaining depth.
+ *
+ * Coordinator to worker:
+ *   JOB   fen(UTF) mode(byte)             sent once after HELLO
+ *   TASK  id(int) depth(int) path         examine one position
+ *   SPLIT                                 give away unstarted part of the current task
+ *   QUIT
+ * Worker to coordinator:
+ *   HELLO name(UTF)
+ *   RESULT id(int) value(long)            node count, or score for the side to move
+ *   SUBTASKS id(int) count(int) {depth(int) path}...   answer to SPLIT
+ */
+final class Protocol {
+    static final byte HELLO = 1;
+    static final byte JOB = 2;
+    static final byte TASK = 3;
+    static final byte RESULT = 4;
+    static final byte SPLIT = 5;
+    static final byte SUBTASKS = 6;
+    static final byte QUIT = 7;
+
+    static final byte MODE_PERFT = 0;
+    static final byte MODE_ANALYZE = 1;
+
+    private Protocol() { }
+
+    static void writePath(DataOutputStream out, short[] path) throws IOException {
+        out.writeShort(path.length);
+        for (short m : path) out.writeShort(m);
+    }
+
+    static short[] readPath(DataInputStream in) throws IOException {
+        short[] path = new short[in.readUnsignedShort()];
+        for (int i = 0; i < path.length; i++) path[i] = in.readShort();
+        return path;
+    }
+
+    /**
+     * Sets up the root position of a job: "startpos" or a FEN.
+     */
+    static Board rootBoard(String fen) {
+        Board board = new Board();
+        if (!fen.equals("startpos")) board.loadFen(fen);
+        return board;
+    }
+
+    /**
+     * @return the legal move matching a packed move
+     * @throws IllegalArgumentException if there is none
+     */
+    static Move find(Board board, short packed) {
+        for (Move m : board.legalMoves(board.getSideToMove())) {
+            if (m.pack() == packed) return m;
+        }
+        throw new IllegalArgumentException("Illegal move in task path: "
+                + Move.unpackFrom(packed) + Move.unpackTo(packed));
+    }
+
+    /**
+     * @param path moves from the root
+     * @param m one more move
+     * @return a new path ending with m
+     */
+    static short[] append(short[] path, short m) {
+        short[] p = Arrays.copyOf(path, path.length + 1);
+        p[path.length] = m;
+        return p;
+    }
+}
@@ -0,0 +1,247 @@
+package cluster;
+
+import board.Board;
+import board.Move;
+import engine.MaterialEvaluator;
+import engine.Search;
+import engine.SearchResult;
+import engine.TimeManager;
+import engine.TranspositionTable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Worker process for distributed perft and root-move analysis.
+ * Connects to a {@link Coordinator}, receives tasks and sends back results.
+ *
+ * A perft task is worked through child by child. The children not yet
+ * started are kept in a deque, and when the coordinator asks for a split
+ * (because another worker is idle) the worker hands back the later half of
+ * them (rounded up) as new tasks and leaves them out of its own result.
+ *
+ * Tasks run on a separate thread so split requests are answered while a
+ * task is running. If a task fails, that thread closes the connection, so
+ * the coordinator sees the worker go away instead of waiting for a result.
+ */
+public class Worker {
+    /** Task received from the coordinator. */
+    private static class Task {
+        final int id;
+        final int depth;
+        final short[] path;
+
+        Task(int id, int depth, short[] path) {
+            this.id = id;
+            this.depth = depth;
+            this.path = path;
+        }
+    }
+
+    private static final Task STOP = new Task(-1, 0, new short[0]);
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final BlockingQueue<Task> tasks = new LinkedBlockingQueue<>();
+    private volatile Exception failure; // set by the compute thread before it closes the socket
+
+    private Board root;
+    private byte mode;
+
+    // Current perft task and its unstarted children, guarded by this
+    private Task current;
+    private final Deque<short[]> children = new ArrayDeque<>();
+
+    /**
+     * @param socket connection to the coordinator
+     * @throws IOException if the streams cannot be opened
+     */
+    public Worker(Socket socket) throws IOException {
+        this.socket = socket;
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Serves tasks until the coordinator sends QUIT or disconnects.
+     *
+     * @param name name reported to the coordinator
+     * @throws Exception on protocol or I/O errors
+     */
+    public void run(String name) throws Exception {
+        synchronized (out) {
+            out.writeByte(Protocol.HELLO);
+            out.writeUTF(name);
+            out.flush();
+        }
+        if (in.readByte() != Protocol.JOB) throw new IOException("Expected JOB");
+        root = Protocol.rootBoard(in.readUTF());
+        mode = in.readByte();
+
+        Thread compute = new Thread(this::computeLoop, "worker-compute");
+        compute.start();
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == Protocol.TASK) {
+                    int id = in.readInt();
+                    int depth = in.readInt();
+                    tasks.put(new Task(id, depth, Protocol.readPath(in)));
+                } else if (type == Protocol.SPLIT) {
+                    giveAway();
+                } else if (type == Protocol.QUIT) {
+                    break;
+                } else {
+                    throw new IOException("Unexpected message " + type);
+                }
+            }
+        } catch (EOFException e) {
+            // coordinator went away
+        } catch (IOException e) {
+            if (failure == null) throw e; // otherwise the compute thread closed the socket
+        } finally {
+            tasks.put(STOP);
+            compute.join();
+        }
+        if (failure != null) throw new IOException("Task failed", failure);
+    }
+
+    private void computeLoop() {
+        try {
+            TimeManager time = new TimeManager();
+            time.setMoveOverhead(0);
+            Search search = new Search(new MaterialEvaluator(), time, new TranspositionTable(64));
+            Task t;
+            while ((t = tasks.take()) != STOP) {
+                Board board = root.copy();
+                for (short m : t.path) board.makeMove(Protocol.find(board, m));
+                long value;
+                if (mode == Protocol.MODE_PERFT) {
+                    value = perftTask(board, t);
+                } else {
+                    time.startUnlimited();
+                    SearchResult r = search.search(board, Math.max(1, t.depth), Long.MAX_VALUE, null);
+                    value = r.score;
+                }
+                synchronized (out) {
+                    out.writeByte(Protocol.RESULT);
+                    out.writeInt(t.id);
+                    out.writeLong(value);
+                    out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Worker stopped: " + e);
+            failure = e;
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // the coordinator sees the connection end either way
+            }
+        }
+    }
+
+    /**
+     * Counts the leaves of a task, taking its children one at a time
+     * from the deque that {@link #giveAway()} may shrink concurrently.
+     */
+    private long perftTask(Board board, Task t) {
+        if (t.depth <= 1) return perft(board, t.depth);
+
+        synchronized (this) {
+            current = t;
+            children.clear();
+            for (Move m : board.legalMoves(board.getSideToMove())) children.add(Protocol.append(t.path, m.pack()));
+        }
+        long nodes = 0;
+        while (true) {
+            short[] child;
+            synchronized (this) {
+                child = children.pollFirst();
+            }
+            if (child == null) break;
+            board.makeMove(Protocol.find(board, child[child.length - 1]));
+            nodes += perft(board, t.depth - 1);
+            board.undo();
+        }
+        return nodes;
+    }
+
+    /**
+     * @return number of leaf positions exactly depth plies below this one
+     */
+    static long perft(Board board, int depth) {
+        if (depth == 0) return 1;
+        List<Move> moves = board.legalMoves(board.getSideToMove());
+        if (depth == 1) return moves.size();
+        long nodes = 0;
+        for (Move m : moves) {
+            board.makeMove(m);
+            nodes += perft(board, depth - 1);
+            board.undo();
+        }
+        return nodes;
+    }
+
+    /**
+     * Answers a split request with the later half of the unstarted children.
+     * The output lock is taken first so the reply is always sent before the
+     * result of the task it was split from.
+     */
+    private void giveAway() throws IOException {
+        synchronized (out) {
+            List<short[]> given = new ArrayList<>();
+            int id = -1, depth = 0;
+            synchronized (this) {
+                if (current != null) {
+                    id = current.id;
+                    depth = current.depth - 1;
+                    for (int n = (children.size() + 1) / 2; n > 0; n--) given.add(children.pollLast());
+                }
+            }
+            out.writeByte(Protocol.SUBTASKS);
+            out.writeInt(id);
+            out.writeInt(given.size());
+            for (short[] path : given) {
+                out.writeInt(depth);
+                Protocol.writePath(out, path);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Command line entry point.
+     * Usage: Worker host:port
+     *
+     * @param args command line arguments
+     * @throws Exception on connection or protocol errors
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1 || !args[0].contains(":")) {
+            System.err.println("Usage: Worker host:port");
+            System.exit(1);
+        }
+        String host = args[0].substring(0, args[0].lastIndexOf(':'));
+        int port = Integer.parseInt(args[0].substring(args[0].lastIndexOf(':') + 1));
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            new Worker(socket).run(ManagementFactory.getRuntimeMXBean().getName());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package engine;
+
+import board.Board;
+import board.Move;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Search results kept in a memory-mapped file, so analysis survives
+ * restarts and can be reused by later runs.
+ *
+ * The file holds a 16-byte header followed by buckets of four 16-byte
+ * entries (one 64-byte cache line per bucket). A position's key selects its
+ * bucket; within the bucket an existing entry for the same position is
+ * replaced only by a deeper result, otherwise the shallowest entry is
+ * replaced if the new result is at least as deep. Deep, expensive results
+ * therefore stay in the file while cheap ones are recycled.
+ *
+ * Entry layout: key (8 bytes), packed move (2), score (2), depth (1), 3 unused.
+ * A key of zero marks an empty entry. All methods are synchronized, which is
+ * cheap compared with the searches whose results are stored.
+ */
+public class AnalysisCache implements Closeable, MemoryBudget.Cache {
+    private static final int MAGIC = 0x4F564143; // "OVAC"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int ENTRY = 16;
+    private static final int WAYS = 4;
+    private static final int BUCKET = ENTRY * WAYS;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int bucketMask;
+
+    /**
+     * Cached result for one position.
+     */
+    public static class Entry {
+        public final short move;
+        public final int score;
+        public final int depth;
+
+        Entry(short move, int score, int depth) {
+            this.move = move;
+            this.score = score;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * Opens or creates a cache file. An existing file keeps its own size
+     * and contents; a missing or unrecognized file is initialized empty.
+     *
+     * @param file cache file
+     * @param megabytes size for a new file; rounded down to a power of two buckets
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public AnalysisCache(Path file, int megabytes) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int buckets = existingBuckets();
+        boolean fresh = buckets == 0;
+        if (fresh) {
+            long wanted = Math.max(1, (long) megabytes * 1024 * 1024 / BUCKET);
+            buckets = Integer.highestOneBit((int) Math.min(wanted, 1 << 24)); // at most 1 GB per mapping
+        }
+        long size = HEADER + (long) buckets * BUCKET;
+        if (fresh) channel.truncate(0);
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (fresh) {
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putInt(8, buckets);
+        }
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * @return bucket count from a valid header, or 0 if the file must be initialized
+     */
+    private int existingBuckets() throws IOException {
+        long size = channel.size();
+        if (size < HEADER) return 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) return 0;
+        int buckets = header.getInt();
+        if (Integer.bitCount(buckets) != 1 || size != HEADER + (long) buckets * BUCKET) return 0;
+        return buckets;
+    }
+
+    private int bucketOffset(long key) {
+        return HEADER + (((int) (key ^ (key >>> 32))) & bucketMask) * BUCKET;
+    }
+
+    /**
+     * @param key position key
+     * @return the cached result, or null if the position is not stored
+     */
+    public synchronized Entry probe(long key) {
+        if (key == 0) return null;
+        int base = bucketOffset(key);
+        for (int i = 0; i < WAYS; i++) {
+            int e = base + i * ENTRY;
+            if (map.getLong(e) == key) {
+                return new Entry(map.getShort(e + 8), map.getShort(e + 10), map.get(e + 12) & 0xFF);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores a result using depth-preferred replacement.
+     *
+     * @param key position key
+     * @param move packed best move
+     * @param score score for the side to move
+     * @param depth depth the score was searched to
+     * @return true if the result was written
+     */
+    public synchronized boolean store(long key, short move, int score, int depth) {
+        if (key == 0) return false;
+        int base = bucketOffset(key);
+        int victim = -1, victimDepth = Integer.MAX_VALUE;
+        for (int i = 0; i < WAYS; i++) {
+            int e = base + i * ENTRY;
+            long k = map.getLong(e);
+            int d = map.get(e + 12) & 0xFF;
+            if (k == key) {
+                if (d > depth) return false;
+                victim = e;
+                victimDepth = d;
+                break;
+            }
+            if (k == 0) {
+                if (victimDepth >= 0) {
+                    victim = e;
+                    victimDepth = -1;
+                }
+            } else if (d < victimDepth) {
+                victim = e;
+                victimDepth = d;
+            }
+        }
+        if (victimDepth > depth) return false;
+
+        map.putLong(victim, key);
+        map.putShort(victim + 8, move);
+        map.putShort(victim + 10, (short) score);
+        map.put(victim + 12, (byte) Math.min(depth, 255));
+        return true;
+    }
+
+    /**
+     * Returns the cached result when it is at least as deep as requested,
+     * otherwise runs the search and stores its result.
+     *
+     * @param search search to run on a cache miss (its time manager must be started)
+     * @param board position to analyze
+     * @param depth required depth
+     * @return cached or freshly searched result; a cached result has a one-move PV and zero nodes
+     */
+    public SearchResult analyze(Search search, Board board, int depth) {
+        long key = board.positionKey();
+        Entry e = probe(key);
+        if (e != null && e.depth >= depth) {
+            Move m = find(board, e.move);
+            if (m != null) return new SearchResult(m, e.score, e.depth, 0, List.of(m));
+        }
+        SearchResult r = search.search(board, depth, Long.MAX_VALUE, null);
+        if (r.bestMove != null && r.depth > 0) store(key, r.bestMove.pack(), r.score, r.depth);
+        return r;
+    }
+
+    /**
+     * @return the legal move matching a packed move, or null (e.g. after a key collision)
+     */
+    public static Move find(Board board, short packed) {
+        for (Move m : board.legalMoves(board.getSideToMove())) {
+            if (m.pack() == packed) return m;
+        }
+        return null;
+    }
+
+    /**
+     * @return size of the mapped file in bytes
+     */
+    @Override
+    public long sizeInBytes() {
+        return map.capacity();
+    }
+
+    /**
+     * The file keeps the size it was created with, so resizing has no effect.
+     */
+    @Override
+    public long resize(long bytes) {
+        return sizeInBytes();
+    }
+
+    @Override
+    public boolean isResizable() {
+        return false;
+    }
+
+    /**
+     * Writes pending changes to disk and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+}
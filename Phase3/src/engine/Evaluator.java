@@ -0,0 +1,40 @@
+package engine;
+
+import board.Board;
+import board.Move;
+
+/**
+ * Static evaluation of a board position.
+ */
+public interface Evaluator {
+
+    /**
+     * Scores the position from the point of view of the side to move.
+     *
+     * @param board position to score
+     * @return score in centipawns, positive when the side to move is better
+     */
+    int evaluate(Board board);
+
+    /**
+     * Called when a search starts on a position, so evaluators that keep
+     * incremental state can rebuild it from scratch.
+     *
+     * @param board root position
+     */
+    default void refresh(Board board) { }
+
+    /**
+     * Called after the search played a legal move on the board.
+     *
+     * @param move the move just made
+     */
+    default void onMakeMove(Move move) { }
+
+    /**
+     * Called before the search takes back a move made with {@link #onMakeMove}.
+     *
+     * @param move the move being undone
+     */
+    default void onUndoMove(Move move) { }
+}
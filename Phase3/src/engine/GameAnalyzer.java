@@ -0,0 +1,209 @@
+package engine;
+
+import board.Board;
+import board.Move;
+import board.San;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Reviews a finished game: every position of the game is searched to a
+ * fixed depth and each move is compared with the engine's choice.
+ *
+ * Positions are independent, so they are searched in parallel, one
+ * {@link Search} per task on its own copy of the board. All searches share
+ * one {@link TranspositionTable}, which lets neighbouring plies reuse each
+ * other's work since their trees overlap heavily.
+ */
+public class GameAnalyzer {
+    /** Centipawn losses at which a move is tagged. */
+    public static final int INACCURACY = 50;
+    public static final int MISTAKE = 100;
+    public static final int BLUNDER = 300;
+
+    /**
+     * Verdict on one move of the game. Scores are in centipawns from the
+     * point of view of the player who made the move.
+     */
+    public static class Annotation {
+        public final int ply;          // 0 for the first move
+        public final String san;       // move as played
+        public final int bestScore;    // score of the engine's choice
+        public final int playedScore;  // score after the move actually played
+        public final String bestSan;   // engine's choice, null unless the move is tagged
+        public final String tag;       // "blunder", "mistake", "inaccuracy" or null
+
+        Annotation(int ply, String san, int bestScore, int playedScore, String bestSan, String tag) {
+            this.ply = ply;
+            this.san = san;
+            this.bestScore = bestScore;
+            this.playedScore = playedScore;
+            this.bestSan = bestSan;
+            this.tag = tag;
+        }
+
+        /**
+         * @return centipawns lost compared with the engine's choice
+         */
+        public int loss() {
+            return Math.max(0, bestScore - playedScore);
+        }
+
+        /**
+         * @return short text such as "+0.35 ?? (best Nf3 +1.20)"
+         */
+        public String summary() {
+            StringBuilder sb = new StringBuilder(formatScore(playedScore));
+            if (tag != null) sb.append(' ').append(symbol(tag));
+            if (bestSan != null) sb.append(" (best ").append(bestSan).append(' ').append(formatScore(bestScore)).append(')');
+            return sb.toString();
+        }
+    }
+
+    /** Result of searching one position. */
+    private static class PositionScore {
+        int score;      // side to move's point of view
+        String bestSan; // null in terminal positions
+        Move bestMove;
+    }
+
+    private final int depth;
+    private final int threads;
+    private final TranspositionTable table;
+    private AnalysisCache cache; // optional persistent results
+
+    /**
+     * @param depth search depth per position
+     * @param threads worker threads
+     * @param hashMegabytes size of the shared transposition table
+     */
+    public GameAnalyzer(int depth, int threads, int hashMegabytes) {
+        this.depth = depth;
+        this.threads = threads;
+        this.table = new TranspositionTable(hashMegabytes);
+    }
+
+    /**
+     * Lets the analyzer reuse results stored by earlier runs and keep its own.
+     *
+     * @param cache persistent cache, or null for none
+     */
+    public void setCache(AnalysisCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Analyzes every move of a game.
+     *
+     * @param start position before the first move
+     * @param moves moves of the game, in order (from any board; they are matched by squares)
+     * @param progress receives the number of positions finished so far, may be null
+     * @return one annotation per move
+     * @throws Exception if a worker fails or a move is illegal
+     */
+    public List<Annotation> analyze(Board start, List<Move> moves, IntConsumer progress) throws Exception {
+        // Replay once to get an independent board for every position and the played moves in SAN
+        List<Board> positions = new ArrayList<>();
+        List<String> played = new ArrayList<>();
+        Board replay = start.copy();
+        positions.add(replay.copy());
+        for (Move m : moves) {
+            Move legal = find(replay, m);
+            if (legal == null) throw new IllegalArgumentException("Illegal move in game: " + m);
+            played.add(San.toSan(replay, legal));
+            replay.makeMove(legal);
+            positions.add(replay.copy());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicInteger done = new AtomicInteger();
+        List<Future<PositionScore>> futures = new ArrayList<>();
+        try {
+            for (Board b : positions) {
+                futures.add(pool.submit(() -> {
+                    PositionScore s = evaluate(b);
+                    if (progress != null) progress.accept(done.incrementAndGet());
+                    return s;
+                }));
+            }
+
+            List<PositionScore> scores = new ArrayList<>();
+            for (Future<PositionScore> f : futures) scores.add(f.get());
+
+            List<Annotation> result = new ArrayList<>();
+            for (int i = 0; i < moves.size(); i++) {
+                PositionScore before = scores.get(i);
+                int playedScore = -scores.get(i + 1).score;
+                int bestScore = Math.max(before.score, playedScore);
+                int loss = bestScore - playedScore;
+                Move m = moves.get(i);
+                boolean same = before.bestMove != null
+                        && before.bestMove.from.equals(m.from) && before.bestMove.to.equals(m.to);
+                String tag = tag(loss);
+                String bestSan = same || tag == null ? null : before.bestSan;
+                result.add(new Annotation(i, played.get(i), bestScore, playedScore, bestSan, tag));
+            }
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private PositionScore evaluate(Board b) {
+        TimeManager time = new TimeManager();
+        time.setMoveOverhead(0);
+        time.startUnlimited();
+        Search search = new Search(new MaterialEvaluator(), time, table);
+        SearchResult r = cache != null ? cache.analyze(search, b, depth)
+                : search.search(b, depth, Long.MAX_VALUE, null);
+
+        PositionScore s = new PositionScore();
+        s.score = r.score;
+        if (r.bestMove != null) {
+            s.bestMove = r.bestMove;
+            s.bestSan = San.toSan(b, r.bestMove);
+        }
+        return s;
+    }
+
+    private static Move find(Board board, Move m) {
+        for (Move legal : board.legalMoves(board.getSideToMove())) {
+            if (legal.from.equals(m.from) && legal.to.equals(m.to)) return legal;
+        }
+        return null;
+    }
+
+    private static String tag(int loss) {
+        if (loss >= BLUNDER) return "blunder";
+        if (loss >= MISTAKE) return "mistake";
+        if (loss >= INACCURACY) return "inaccuracy";
+        return null;
+    }
+
+    private static String symbol(String tag) {
+        switch (tag) {
+            case "blunder": return "??";
+            case "mistake": return "?";
+            default: return "?!";
+        }
+    }
+
+    /**
+     * @param score centipawns, or a mate score
+     * @return e.g. "+1.25", "-0.40" or "#3" / "#-2" for mates in moves
+     */
+    public static String formatScore(int score) {
+        if (Math.abs(score) >= Search.MATE - Search.MAX_PLY) {
+            int moves = (Search.MATE - Math.abs(score) + 1) / 2;
+            if (moves == 0) return score > 0 ? "#" : "#-"; // the game is over
+            return score > 0 ? "#" + moves : "#-" + moves;
+        }
+        return String.format("%+.2f", score / 100.0);
+    }
+}
@@ -0,0 +1,258 @@
+package engine;
+
+import board.Board;
+import board.Move;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds forced mates with proof-number search.
+ *
+ * The tree is grown best-first: each iteration descends to the most-proving
+ * node, expands it, and backs up proof and disproof numbers. OR nodes are the
+ * attacker to move (one proven child suffices), AND nodes are the defender to
+ * move (every child must be proven). Defender nodes start with a proof number
+ * equal to their number of replies, so positions with few escapes are tried first.
+ *
+ * Mates are searched for lengths 1..N in turn, so the first mate found is the
+ * shortest. Solved nodes are kept in a private hash table keyed by position and
+ * remaining depth, which lets transpositions reuse proofs. The search stops when
+ * the node budget is used up.
+ */
+public class MateSolver {
+    private static final int INF = Integer.MAX_VALUE / 4;
+
+    /**
+     * Outcome of a mate search.
+     */
+    public static class Result {
+        public final boolean found;
+        public final int mateIn;       // moves of the attacker, 0 if not found
+        public final List<Move> line;  // forced line ending in mate
+        public final long nodes;
+
+        Result(boolean found, int mateIn, List<Move> line, long nodes) {
+            this.found = found;
+            this.mateIn = mateIn;
+            this.line = line;
+            this.nodes = nodes;
+        }
+    }
+
+    /** One node of the proof tree. */
+    private static class Node {
+        final Move move; // move leading to this node, null at the root
+        int pn = 1, dn = 1;
+        Node[] children;
+
+        Node(Move move) {
+            this.move = move;
+        }
+    }
+
+    // Solved-node table: open addressing over primitive arrays, always-replace
+    private final long[] tableKeys;
+    private final int[] tablePn;
+    private final int[] tableDn;
+    private final int tableMask;
+
+    private Board board;
+    private String attacker;
+    private long nodes;
+    private long budget;
+
+    /**
+     * @param tableEntries capacity of the solved-node table (rounded to a power of two)
+     */
+    public MateSolver(int tableEntries) {
+        int size = Integer.highestOneBit(Math.max(1024, tableEntries));
+        tableKeys = new long[size];
+        tablePn = new int[size];
+        tableDn = new int[size];
+        tableMask = size - 1;
+    }
+
+    public MateSolver() {
+        this(1 << 20);
+    }
+
+    /**
+     * Searches for a forced mate by the side to move.
+     * The board is restored before returning.
+     *
+     * @param board position to solve
+     * @param maxMoves longest mate to look for, in attacker moves
+     * @param nodeBudget maximum number of tree nodes to create
+     * @return the shortest mate found, or a result with found == false
+     */
+    public Result solve(Board board, int maxMoves, long nodeBudget) {
+        this.board = board;
+        this.attacker = board.getSideToMove();
+        this.nodes = 0;
+        this.budget = nodeBudget;
+
+        for (int n = 1; n <= maxMoves && nodes < budget; n++) {
+            Node root = new Node(null);
+            int maxPly = 2 * n - 1;
+            while (root.pn != 0 && root.dn != 0 && nodes < budget) {
+                iterate(root, 0, maxPly);
+            }
+            if (root.pn == 0) return new Result(true, n, extractLine(root), nodes);
+        }
+        return new Result(false, 0, Collections.emptyList(), nodes);
+    }
+
+    /**
+     * Descends to the most-proving node, expands it and updates the path
+     * on the way back. Moves are made on the board while descending.
+     */
+    private void iterate(Node node, int ply, int maxPly) {
+        if (node.children == null) {
+            expand(node, ply, maxPly);
+        } else {
+            boolean or = (ply % 2 == 0);
+            Node best = null;
+            for (Node c : node.children) {
+                if (best == null || (or ? c.pn < best.pn : c.dn < best.dn)) best = c;
+            }
+            board.makeMove(best.move);
+            iterate(best, ply + 1, maxPly);
+            board.undo();
+        }
+        update(node, ply);
+        if (node.pn == 0 || node.dn == 0) store(ply, maxPly, node);
+    }
+
+    private void expand(Node node, int ply, int maxPly) {
+        String side = board.getSideToMove();
+        List<Move> moves = board.legalMoves(side);
+        node.children = new Node[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            Node child = new Node(moves.get(i));
+            nodes++;
+            board.makeMove(child.move);
+            evaluate(child, ply + 1, maxPly);
+            board.undo();
+            node.children[i] = child;
+        }
+    }
+
+    /**
+     * Sets the initial proof and disproof numbers of a new node.
+     */
+    private void evaluate(Node node, int ply, int maxPly) {
+        if (probe(ply, maxPly, node)) return;
+
+        String side = board.getSideToMove();
+        List<Move> replies = board.legalMoves(side);
+        boolean defenderToMove = !side.equals(attacker);
+
+        if (replies.isEmpty()) {
+            boolean mated = board.isCheck(side);
+            setSolved(node, defenderToMove && mated);
+        } else if (defenderToMove && ply >= maxPly) {
+            setSolved(node, false); // out of moves without mating
+        } else if (defenderToMove) {
+            node.pn = replies.size();
+            node.dn = 1;
+        } else {
+            node.pn = 1;
+            node.dn = 1;
+        }
+        if (node.pn == 0 || node.dn == 0) store(ply, maxPly, node);
+    }
+
+    private static void setSolved(Node node, boolean proven) {
+        node.pn = proven ? 0 : INF;
+        node.dn = proven ? INF : 0;
+    }
+
+    private static void update(Node node, int ply) {
+        if (node.children.length == 0) {
+            // No legal moves: defender nodes were solved when created, an attacker without moves fails
+            if (node.pn != 0 && node.dn != 0) setSolved(node, false);
+            return;
+        }
+        boolean or = (ply % 2 == 0);
+        int min = INF, sum = 0;
+        for (Node c : node.children) {
+            int a = or ? c.pn : c.dn;
+            int b = or ? c.dn : c.pn;
+            min = Math.min(min, a);
+            sum = Math.min(INF, sum + b);
+        }
+        if (or) {
+            node.pn = min;
+            node.dn = sum;
+        } else {
+            node.dn = min;
+            node.pn = sum;
+        }
+    }
+
+    /**
+     * Follows proven children from the root to build the mating line.
+     * The defender picks the reply that needs the largest proof subtree.
+     */
+    private List<Move> extractLine(Node root) {
+        List<Move> line = new ArrayList<>();
+        Node node = root;
+        int ply = 0;
+        while (node.children != null && node.children.length > 0) {
+            Node next = null;
+            for (Node c : node.children) {
+                if (c.pn != 0) continue;
+                if (next == null || (ply % 2 == 1 && size(c) > size(next))) next = c;
+                if (ply % 2 == 0) break;
+            }
+            if (next == null) break;
+            line.add(next.move);
+            node = next;
+            ply++;
+        }
+        return line;
+    }
+
+    private static int size(Node n) {
+        if (n.children == null) return 1;
+        int s = 1;
+        for (Node c : n.children) s += size(c);
+        return s;
+    }
+
+    private int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & tableMask;
+    }
+
+    private long tableKey(int ply, int maxPly) {
+        // Proofs depend on the remaining depth, so it is mixed into the key
+        long remaining = maxPly - ply;
+        return board.positionKey() ^ (remaining * 0x9E3779B97F4A7C15L);
+    }
+
+    private void store(int ply, int maxPly, Node node) {
+        long key = tableKey(ply, maxPly);
+        int s = slot(key);
+        tableKeys[s] = key;
+        tablePn[s] = node.pn;
+        tableDn[s] = node.dn;
+    }
+
+    private boolean probe(int ply, int maxPly, Node node) {
+        long key = tableKey(ply, maxPly);
+        int s = slot(key);
+        if (tableKeys[s] != key) return false;
+        node.pn = tablePn[s];
+        node.dn = tableDn[s];
+        return true;
+    }
+
+    /**
+     * @return approximate heap bytes used by the solved-node table
+     */
+    public long tableBytes() {
+        return tableKeys.length * 16L;
+    }
+}
@@ -0,0 +1,158 @@
+package engine;
+
+import board.Board;
+import board.Position;
+import pieces.Piece;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Handcrafted evaluation: material plus piece-square tables.
+ * Tables are written from White's point of view with row 0 being
+ * the 8th rank, matching the board's grid; Black reads them mirrored.
+ *
+ * The built-in tables can be replaced by tuned weights loaded from a file
+ * (see {@link #load(File)}).
+ */
+public class MaterialEvaluator implements Evaluator {
+    /** Number of weights: 6 piece values followed by 6 x 64 square bonuses. */
+    public static final int WEIGHT_COUNT = 6 + 6 * 64;
+
+    static final int[] VALUES = {100, 320, 330, 500, 900, 0};
+
+    static final int[][] PST = {
+        { // Pawn
+             0,  0,  0,  0,  0,  0,  0,  0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+             5,  5, 10, 25, 25, 10,  5,  5,
+             0,  0,  0, 20, 20,  0,  0,  0,
+             5, -5,-10,  0,  0,-10, -5,  5,
+             5, 10, 10,-20,-20, 10, 10,  5,
+             0,  0,  0,  0,  0,  0,  0,  0 },
+        { // Knight
+           -50,-40,-30,-30,-30,-30,-40,-50,
+           -40,-20,  0,  0,  0,  0,-20,-40,
+           -30,  0, 10, 15, 15, 10,  0,-30,
+           -30,  5, 15, 20, 20, 15,  5,-30,
+           -30,  0, 15, 20, 20, 15,  0,-30,
+           -30,  5, 10, 15, 15, 10,  5,-30,
+           -40,-20,  0,  5,  5,  0,-20,-40,
+           -50,-40,-30,-30,-30,-30,-40,-50 },
+        { // Bishop
+           -20,-10,-10,-10,-10,-10,-10,-20,
+           -10,  0,  0,  0,  0,  0,  0,-10,
+           -10,  0,  5, 10, 10,  5,  0,-10,
+           -10,  5,  5, 10, 10,  5,  5,-10,
+           -10,  0, 10, 10, 10, 10,  0,-10,
+           -10, 10, 10, 10, 10, 10, 10,-10,
+           -10,  5,  0,  0,  0,  0,  5,-10,
+           -20,-10,-10,-10,-10,-10,-10,-20 },
+        { // Rook
+             0,  0,  0,  0,  0,  0,  0,  0,
+             5, 10, 10, 10, 10, 10, 10,  5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+            -5,  0,  0,  0,  0,  0,  0, -5,
+             0,  0,  0,  5,  5,  0,  0,  0 },
+        { // Queen
+           -20,-10,-10, -5, -5,-10,-10,-20,
+           -10,  0,  0,  0,  0,  0,  0,-10,
+           -10,  0,  5,  5,  5,  5,  0,-10,
+            -5,  0,  5,  5,  5,  5,  0, -5,
+             0,  0,  5,  5,  5,  5,  0, -5,
+           -10,  5,  5,  5,  5,  5,  0,-10,
+           -10,  0,  5,  0,  0,  0,  0,-10,
+           -20,-10,-10, -5, -5,-10,-10,-20 },
+        { // King
+           -30,-40,-40,-50,-50,-40,-40,-30,
+           -30,-40,-40,-50,-50,-40,-40,-30,
+           -30,-40,-40,-50,-50,-40,-40,-30,
+           -30,-40,-40,-50,-50,-40,-40,-30,
+           -20,-30,-30,-40,-40,-30,-30,-20,
+           -10,-20,-20,-20,-20,-20,-20,-10,
+            20, 20,  0,  0,  0,  0, 20, 20,
+            20, 30, 10,  0,  0, 10, 30, 20 }
+    };
+
+    private final int[] values;
+    private final int[][] pst;
+
+    /**
+     * Creates the evaluator with the built-in tables.
+     */
+    public MaterialEvaluator() {
+        this(defaultWeights());
+    }
+
+    /**
+     * Creates the evaluator from a weight vector laid out as
+     * 6 piece values, then 64 square bonuses per piece kind.
+     *
+     * @param weights {@value #WEIGHT_COUNT} weights
+     * @throws IllegalArgumentException if the vector has the wrong length
+     */
+    public MaterialEvaluator(int[] weights) {
+        if (weights.length != WEIGHT_COUNT) {
+            throw new IllegalArgumentException("Expected " + WEIGHT_COUNT + " weights, got " + weights.length);
+        }
+        values = new int[6];
+        pst = new int[6][64];
+        System.arraycopy(weights, 0, values, 0, 6);
+        for (int k = 0; k < 6; k++) System.arraycopy(weights, 6 + k * 64, pst[k], 0, 64);
+    }
+
+    /**
+     * @return the built-in weights in the layout of {@link #MaterialEvaluator(int[])}
+     */
+    public static int[] defaultWeights() {
+        int[] w = new int[WEIGHT_COUNT];
+        System.arraycopy(VALUES, 0, w, 0, 6);
+        for (int k = 0; k < 6; k++) System.arraycopy(PST[k], 0, w, 6 + k * 64, 64);
+        return w;
+    }
+
+    /**
+     * Loads weights written by the tuner: whitespace-separated integers.
+     *
+     * @param file weight file
+     * @return evaluator using those weights
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if it does not hold exactly {@value #WEIGHT_COUNT} integers
+     */
+    public static MaterialEvaluator load(File file) throws IOException {
+        String[] tokens = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim().split("\\s+");
+        int[] w = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) w[i] = Integer.parseInt(tokens[i]);
+        return new MaterialEvaluator(w);
+    }
+
+    /**
+     * @param p a piece
+     * @return built-in material value of the piece in centipawns, used for move ordering
+     */
+    public static int value(Piece p) {
+        return VALUES[p.kind()];
+    }
+
+    @Override
+    public int evaluate(Board board) {
+        int score = 0; // from White's point of view
+        for (int i = board.pieceCount("white") - 1; i >= 0; i--) {
+            Piece p = board.pieceAt("white", i);
+            Position pos = p.getPosition();
+            score += values[p.kind()] + pst[p.kind()][pos.getRow() * 8 + pos.getCol()];
+        }
+        for (int i = board.pieceCount("black") - 1; i >= 0; i--) {
+            Piece p = board.pieceAt("black", i);
+            Position pos = p.getPosition();
+            score -= values[p.kind()] + pst[p.kind()][(7 - pos.getRow()) * 8 + pos.getCol()];
+        }
+        return board.getSideToMove().equals("white") ? score : -score;
+    }
+}
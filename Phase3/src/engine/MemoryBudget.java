@@ -0,0 +1,245 @@
+package engine;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One memory budget shared by all engine caches (transposition tables,
+ * analysis caches, opening books), so that together they never grow past
+ * a configured total.
+ *
+ * Caches register under a name with a weight. When the budget is
+ * rebalanced, caches that cannot change size keep what they hold, caches
+ * with a configured size get that size, and the rest of the total is split
+ * between the remaining caches in proportion to their weights. Configured
+ * sizes that together exceed what the fixed caches leave of the total are
+ * scaled down to fit, so the caches never hold more than the total.
+ *
+ * The configuration is a comma-separated list such as "hash=2048MB" or
+ * "hash=4GB,analysis=512MB,transposition=75%". "hash" (or "total") sets the
+ * total, like the UCI Hash option; any other name fixes the size of the
+ * cache registered under it, absolute or as a percentage of the total.
+ * Sizes accept the suffixes KB, MB and GB (default MB).
+ *
+ * Resizing usually discards a cache's contents and is not safe while a
+ * search uses the cache, so {@link #rebalance()} must be called between searches.
+ */
+public class MemoryBudget implements MemoryBudgetMXBean {
+
+    /**
+     * A cache whose memory is governed by the budget.
+     */
+    public interface Cache {
+        /**
+         * @return bytes currently held by the cache
+         */
+        long sizeInBytes();
+
+        /**
+         * Changes the size of the cache.
+         *
+         * @param bytes requested size
+         * @return the size actually used; caches that cannot resize return their current size
+         */
+        long resize(long bytes);
+
+        /**
+         * @return false if {@link #resize} has no effect, e.g. for read-only mapped files
+         */
+        default boolean isResizable() { return true; }
+    }
+
+    /** Registration of one cache. */
+    private static class Registration {
+        final String name;
+        final int weight;
+        final Cache cache;
+        long target;
+        long applied = -1; // last target passed to resize
+
+        Registration(String name, int weight, Cache cache) {
+            this.name = name;
+            this.weight = weight;
+            this.cache = cache;
+        }
+    }
+
+    private long total;
+    private final Map<String, Long> fixedBytes = new LinkedHashMap<>();
+    private final Map<String, Integer> fixedPercent = new LinkedHashMap<>();
+    private final List<Registration> caches = new ArrayList<>();
+
+    /**
+     * @param totalBytes total memory for all registered caches
+     */
+    public MemoryBudget(long totalBytes) {
+        this.total = totalBytes;
+    }
+
+    /**
+     * Creates a budget from a configuration string such as "hash=2048MB".
+     *
+     * @param spec comma-separated name=size pairs
+     * @return the configured budget (64 MB total if none is given)
+     * @throws IllegalArgumentException on a malformed entry
+     */
+    public static MemoryBudget parse(String spec) {
+        MemoryBudget budget = new MemoryBudget(64L << 20);
+        for (String part : spec.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) continue;
+            int eq = part.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected name=size: " + part);
+            String name = part.substring(0, eq).trim().toLowerCase(Locale.ROOT);
+            String value = part.substring(eq + 1).trim().toUpperCase(Locale.ROOT);
+
+            if (name.equals("total") || name.equals("hash")) {
+                if (value.endsWith("%")) throw new IllegalArgumentException(name + " is the total and needs a size: " + part);
+                budget.total = parseSize(value);
+            } else if (value.endsWith("%")) {
+                int percent;
+                try {
+                    percent = Integer.parseInt(value.substring(0, value.length() - 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad percentage: " + part);
+                }
+                if (percent < 0 || percent > 100) throw new IllegalArgumentException("Percentage out of range: " + part);
+                budget.fixedPercent.put(name, percent);
+            } else {
+                budget.fixedBytes.put(name, parseSize(value));
+            }
+        }
+        return budget;
+    }
+
+    /**
+     * @param value e.g. "512MB", "2GB", "64" (megabytes)
+     * @return size in bytes
+     */
+    public static long parseSize(String value) {
+        String v = value.trim().toUpperCase(Locale.ROOT);
+        long unit = 1L << 20;
+        if (v.endsWith("KB")) unit = 1L << 10;
+        else if (v.endsWith("GB")) unit = 1L << 30;
+        if (v.endsWith("KB") || v.endsWith("MB") || v.endsWith("GB")) v = v.substring(0, v.length() - 2);
+        try {
+            return Long.parseLong(v.trim()) * unit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad size: " + value);
+        }
+    }
+
+    /**
+     * Adds a cache. Its size is not changed until {@link #rebalance()}.
+     *
+     * @param name name used in the configuration and in reports
+     * @param weight share of the free memory relative to other caches
+     * @param cache the cache
+     */
+    public synchronized void register(String name, int weight, Cache cache) {
+        unregister(name);
+        caches.add(new Registration(name.toLowerCase(Locale.ROOT), weight, cache));
+    }
+
+    /**
+     * Removes a cache from the budget, e.g. when it is closed.
+     *
+     * @param name name given at registration
+     */
+    public synchronized void unregister(String name) {
+        caches.removeIf(r -> r.name.equals(name.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * @param totalBytes new total; takes effect at the next {@link #rebalance()}
+     */
+    public synchronized void setTotal(long totalBytes) {
+        this.total = totalBytes;
+    }
+
+    /**
+     * Recomputes every cache's share and resizes the caches whose share changed.
+     * Call only while no search is running.
+     */
+    public synchronized void rebalance() {
+        long room = total, configured = 0;
+        int weights = 0;
+        for (Registration r : caches) {
+            if (!r.cache.isResizable()) {
+                r.target = r.cache.sizeInBytes();
+                room -= r.target;
+            } else if (fixedBytes.containsKey(r.name)) {
+                r.target = fixedBytes.get(r.name);
+                configured += r.target;
+            } else if (fixedPercent.containsKey(r.name)) {
+                r.target = total / 100 * fixedPercent.get(r.name);
+                configured += r.target;
+            } else {
+                weights += r.weight;
+            }
+        }
+        room = Math.max(0, room);
+        // Overcommitted: shrink the configured sizes in proportion and leave nothing to share
+        double shrink = configured > room ? (double) room / configured : 1.0;
+        long free = Math.max(0, room - configured);
+
+        for (Registration r : caches) {
+            if (!r.cache.isResizable()) continue;
+            if (fixedBytes.containsKey(r.name) || fixedPercent.containsKey(r.name)) {
+                r.target = (long) (r.target * shrink);
+            } else {
+                r.target = weights == 0 ? 0 : free / weights * r.weight;
+            }
+            if (r.target != r.applied) {
+                r.cache.resize(r.target);
+                r.applied = r.target;
+            }
+        }
+    }
+
+    /**
+     * Publishes this budget through JMX as "overloaders:type=MemoryBudget".
+     *
+     * @throws JMException if registration fails
+     */
+    public void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("overloaders:type=MemoryBudget");
+        if (server.isRegistered(name)) server.unregisterMBean(name);
+        server.registerMBean(this, name);
+    }
+
+    @Override
+    public synchronized long getTotalBytes() {
+        return total;
+    }
+
+    @Override
+    public synchronized long getUsedBytes() {
+        long used = 0;
+        for (Registration r : caches) used += r.cache.sizeInBytes();
+        return used;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getCacheBytes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        for (Registration r : caches) sizes.put(r.name, r.cache.sizeInBytes());
+        return sizes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getUsedBytes() >> 20).append(" / ").append(total >> 20).append(" MB");
+        for (Registration r : caches) sb.append(", ").append(r.name).append(' ').append(r.cache.sizeInBytes() >> 20).append(" MB");
+        return sb.toString();
+    }
+}
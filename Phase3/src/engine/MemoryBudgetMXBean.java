@@ -0,0 +1,17 @@
+package engine;
+
+import java.util.Map;
+
+/**
+ * Management view of a {@link MemoryBudget}, visible in JConsole and other JMX clients.
+ */
+public interface MemoryBudgetMXBean {
+    /** @return configured total in bytes */
+    long getTotalBytes();
+
+    /** @return bytes currently held by all registered caches */
+    long getUsedBytes();
+
+    /** @return bytes held by each registered cache, by name */
+    Map<String, Long> getCacheBytes();
+}
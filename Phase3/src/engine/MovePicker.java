@@ -0,0 +1,175 @@
+package engine;
+
+import board.Board;
+import board.Move;
+import board.Position;
+import pieces.Piece;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands out pseudo-legal moves one at a time in stages, generating each
+ * stage only when the previous one is used up:
+ * hash move, winning captures, killer moves, quiet moves, losing captures.
+ *
+ * A node that is cut off by the hash move or a capture never generates its
+ * quiet moves, which are most of the generation work. Captures are ordered
+ * by most valuable victim / least valuable attacker; a capture counts as
+ * losing when the attacker is worth more than the victim (there is no
+ * exchange evaluation yet).
+ *
+ * Moves are not checked for legality; the search does that when it plays them.
+ */
+public class MovePicker {
+    private static final int HASH = 0, GEN_CAPTURES = 1, GOOD_CAPTURES = 2, KILLERS = 3,
+            GEN_QUIETS = 4, QUIETS = 5, BAD_CAPTURES = 6, DONE = 7;
+
+    private final Board board;
+    private final String side;
+    private final short hashMove;
+    private final short[] killers;
+    private final boolean capturesOnly;
+
+    private int stage = HASH;
+    private List<Move> list;
+    private int index;
+    private int killerIndex;
+    private final List<Move> badCaptures = new ArrayList<>();
+
+    /**
+     * Picker for a full-width node.
+     *
+     * @param board position; must not change between calls except by make/undo of returned moves
+     * @param hashMove packed move to try first, 0 if none
+     * @param killers packed quiet moves that caused cutoffs at this ply, 0 entries ignored
+     */
+    public MovePicker(Board board, short hashMove, short[] killers) {
+        this(board, hashMove, killers, false);
+    }
+
+    private MovePicker(Board board, short hashMove, short[] killers, boolean capturesOnly) {
+        this.board = board;
+        this.side = board.getSideToMove();
+        this.hashMove = hashMove;
+        this.killers = killers;
+        this.capturesOnly = capturesOnly;
+    }
+
+    /**
+     * Picker for the quiescence search: all captures, best first, no quiet moves.
+     *
+     * @param board position
+     * @return a captures-only picker
+     */
+    public static MovePicker captures(Board board) {
+        return new MovePicker(board, (short) 0, new short[0], true);
+    }
+
+    /**
+     * @return the next move, or null when all stages are exhausted
+     */
+    public Move next() {
+        while (true) {
+            switch (stage) {
+                case HASH: {
+                    stage = GEN_CAPTURES;
+                    Move m = validate(hashMove, false);
+                    if (m != null) return m;
+                    break;
+                }
+                case GEN_CAPTURES: {
+                    list = board.captureMoves(side);
+                    list.sort((a, b) -> Integer.compare(captureScore(b), captureScore(a)));
+                    index = 0;
+                    stage = GOOD_CAPTURES;
+                    break;
+                }
+                case GOOD_CAPTURES: {
+                    while (index < list.size()) {
+                        Move m = list.get(index++);
+                        if (isHash(m)) continue;
+                        if (!capturesOnly && losing(m)) {
+                            badCaptures.add(m);
+                            continue;
+                        }
+                        return m;
+                    }
+                    stage = capturesOnly ? BAD_CAPTURES : KILLERS;
+                    index = 0;
+                    break;
+                }
+                case KILLERS: {
+                    while (killerIndex < killers.length) {
+                        short k = killers[killerIndex++];
+                        if (k == 0 || k == hashMove) continue;
+                        Move m = validate(k, true);
+                        if (m != null) return m;
+                    }
+                    stage = GEN_QUIETS;
+                    break;
+                }
+                case GEN_QUIETS: {
+                    list = board.quietMoves(side);
+                    index = 0;
+                    stage = QUIETS;
+                    break;
+                }
+                case QUIETS: {
+                    while (index < list.size()) {
+                        Move m = list.get(index++);
+                        short p = m.pack();
+                        if (p == hashMove || isKiller(p)) continue;
+                        return m;
+                    }
+                    stage = BAD_CAPTURES;
+                    index = 0;
+                    break;
+                }
+                case BAD_CAPTURES: {
+                    if (index < badCaptures.size()) return badCaptures.get(index++);
+                    stage = DONE;
+                    break;
+                }
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private boolean isHash(Move m) {
+        return hashMove != 0 && m.pack() == hashMove;
+    }
+
+    private boolean isKiller(short p) {
+        for (short k : killers) {
+            if (k == p && k != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Rebuilds a stored move if it is pseudo-legal here, generating only the
+     * moves of the piece on its origin square.
+     */
+    private Move validate(short packed, boolean quietOnly) {
+        if (packed == 0) return null;
+        Position from = Move.unpackFrom(packed), to = Move.unpackTo(packed);
+        Piece p = board.getPiece(from);
+        if (p == null || !p.getColor().equals(side)) return null;
+        Piece target = board.getPiece(to);
+        if (quietOnly && target != null) return null;
+        for (Position d : p.possibleMoves(board)) {
+            if (d.equals(to)) return new Move(from, to, p, target);
+        }
+        return null;
+    }
+
+    private static boolean losing(Move m) {
+        return MaterialEvaluator.value(m.movedPiece) > MaterialEvaluator.value(m.capturedPiece);
+    }
+
+    private static int captureScore(Move m) {
+        return 10 * MaterialEvaluator.value(m.capturedPiece) - MaterialEvaluator.value(m.movedPiece);
+    }
+}
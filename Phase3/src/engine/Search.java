@@ -0,0 +1,292 @@
+package engine;
+
+import board.Board;
+import board.Move;
+import events.SearchIterationEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Iterative-deepening alpha-beta search (negamax) with a capture-only
+ * quiescence search and aspiration windows at the root.
+ *
+ * Time is controlled by a {@link TimeManager} that the caller starts
+ * before calling {@link #search}. A search instance is not thread-safe;
+ * use one per thread. Several searches may share one
+ * {@link TranspositionTable}.
+ */
+public class Search {
+    public static final int MATE = 30000;
+    public static final int INFINITY = 32000;
+    public static final int MAX_PLY = 64;
+    private static final int ASPIRATION = 50;
+
+    /**
+     * Receives progress after each completed iteration.
+     */
+    public interface Listener {
+        void onIteration(int depth, int score, long nodes, long elapsedMs, List<Move> pv);
+    }
+
+    private final Evaluator evaluator;
+    private final TimeManager time;
+    private final TranspositionTable table; // may be null
+
+    private Board board;
+    private long nodes;
+    private long nodeLimit;
+    private boolean aborted;
+    private final Move[][] pvTable = new Move[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private Move[] previousPv = new Move[0];
+    private final short[][] killers = new short[MAX_PLY + 1][2]; // quiet moves that caused cutoffs, per ply
+
+    /**
+     * @param evaluator static evaluation used at the leaves
+     * @param time time manager consulted during the search
+     */
+    public Search(Evaluator evaluator, TimeManager time) {
+        this(evaluator, time, null);
+    }
+
+    /**
+     * @param evaluator static evaluation used at the leaves
+     * @param time time manager consulted during the search
+     * @param table transposition table, possibly shared with other threads, or null for none
+     */
+    public Search(Evaluator evaluator, TimeManager time, TranspositionTable table) {
+        this.evaluator = evaluator;
+        this.time = time;
+        this.table = table;
+    }
+
+    /**
+     * @return the time manager controlling this search
+     */
+    public TimeManager getTimeManager() { return time; }
+
+    /**
+     * Searches the position for the side to move.
+     * The board is restored to its original state before returning.
+     *
+     * @param board position to search
+     * @param maxDepth maximum iteration depth
+     * @param maxNodes node budget (Long.MAX_VALUE for none)
+     * @param listener receives per-iteration info, may be null
+     * @return best move found and its score
+     */
+    public SearchResult search(Board board, int maxDepth, long maxNodes, Listener listener) {
+        this.board = board;
+        this.nodes = 0;
+        this.nodeLimit = maxNodes;
+        this.aborted = false;
+        this.previousPv = new Move[0];
+        for (short[] k : killers) k[0] = k[1] = 0;
+
+        evaluator.refresh(board);
+        List<Move> rootMoves = board.legalMoves(board.getSideToMove());
+        if (rootMoves.isEmpty()) {
+            int score = board.isCheck(board.getSideToMove()) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, Collections.emptyList());
+        }
+
+        SearchResult result = new SearchResult(rootMoves.get(0), 0, 0, 0, List.of(rootMoves.get(0)));
+        int score = 0;
+        for (int depth = 1; depth <= Math.min(maxDepth, MAX_PLY); depth++) {
+            SearchIterationEvent event = new SearchIterationEvent();
+            event.begin();
+            int alpha = -INFINITY, beta = INFINITY;
+            if (depth >= 4) {
+                alpha = score - ASPIRATION;
+                beta = score + ASPIRATION;
+            }
+
+            int s;
+            while (true) {
+                s = negamax(depth, alpha, beta, 0);
+                if (aborted) break;
+                if (s <= alpha) {
+                    time.onFailLow();
+                    alpha = -INFINITY;
+                } else if (s >= beta) {
+                    beta = INFINITY;
+                } else {
+                    break;
+                }
+            }
+            if (aborted) {
+                commitIteration(event, depth, result.score, null, false);
+                break;
+            }
+
+            score = s;
+            List<Move> pv = new ArrayList<>();
+            for (int i = 0; i < pvLength[0]; i++) pv.add(pvTable[0][i]);
+            previousPv = pv.toArray(new Move[0]);
+            result = new SearchResult(pv.get(0), score, depth, nodes, pv);
+            commitIteration(event, depth, score, result.bestMove, true);
+
+            if (listener != null) listener.onIteration(depth, score, nodes, time.elapsedMillis(), pv);
+            if (Math.abs(score) >= MATE - MAX_PLY) break; // forced mate found
+            if (!time.onIterationComplete(depth, result.bestMove.pack(), score)) break;
+        }
+        return new SearchResult(result.bestMove, result.score, result.depth, nodes, result.pv);
+    }
+
+    private void commitIteration(SearchIterationEvent event, int depth, int score, Move best, boolean completed) {
+        if (!event.shouldCommit()) return;
+        event.depth = depth;
+        event.score = score;
+        event.nodes = nodes;
+        event.bestMove = best == null ? null : best.from.toString() + best.to;
+        event.completed = completed;
+        event.commit();
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if (checkAbort()) return 0;
+        // A single repetition already scores as a draw, so lines heading for threefold are seen early
+        if (ply > 0 && (board.getHalfmoveClock() >= 100 || board.repetitions() > 0)) return 0;
+        if (depth <= 0 || ply >= MAX_PLY) return quiesce(alpha, beta, ply);
+        nodes++;
+
+        long key = 0;
+        short hashMove = 0;
+        int alphaOrig = alpha;
+        if (table != null) {
+            key = board.positionKey();
+            long e = table.probe(key);
+            if (e != TranspositionTable.MISS) {
+                hashMove = TranspositionTable.move(e);
+                if (ply > 0 && TranspositionTable.depth(e) >= depth) {
+                    int s = fromTable(TranspositionTable.score(e), ply);
+                    int bound = TranspositionTable.bound(e);
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || (bound == TranspositionTable.BOUND_LOWER && s >= beta)
+                            || (bound == TranspositionTable.BOUND_UPPER && s <= alpha)) {
+                        return s;
+                    }
+                }
+            }
+        }
+
+        String side = board.getSideToMove();
+        // The previous iteration's PV move is tried first, otherwise the hash move
+        short first = ply < previousPv.length && previousPv[ply] != null ? previousPv[ply].pack() : hashMove;
+        MovePicker picker = new MovePicker(board, first, killers[ply]);
+
+        int best = -INFINITY;
+        Move bestMove = null;
+        int legal = 0;
+        Move m;
+        while ((m = picker.next()) != null) {
+            board.makeMove(m);
+            if (board.isCheck(side)) {
+                board.undo();
+                continue;
+            }
+            legal++;
+            evaluator.onMakeMove(m);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            evaluator.onUndoMove(m);
+            board.undo();
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = m;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, m);
+                    if (alpha >= beta) {
+                        if (m.capturedPiece == null) storeKiller(ply, m.pack());
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (legal == 0) best = board.isCheck(side) ? -MATE + ply : 0;
+        if (table != null) {
+            int bound = best <= alphaOrig ? TranspositionTable.BOUND_UPPER
+                    : best >= beta ? TranspositionTable.BOUND_LOWER : TranspositionTable.BOUND_EXACT;
+            table.store(key, bestMove == null ? 0 : bestMove.pack(), toTable(best, ply), depth, bound);
+        }
+        return best;
+    }
+
+    /**
+     * Mate scores are stored relative to the node rather than the root,
+     * so they stay correct when the position is reached at another ply.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score + ply;
+        if (score <= -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score - ply;
+        if (score <= -MATE + MAX_PLY) return score + ply;
+        return score;
+    }
+
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if (checkAbort()) return 0;
+        nodes++;
+
+        int standPat = evaluator.evaluate(board);
+        if (standPat >= beta || ply >= MAX_PLY) return standPat;
+        if (standPat > alpha) alpha = standPat;
+
+        String side = board.getSideToMove();
+        MovePicker picker = MovePicker.captures(board);
+        Move m;
+        while ((m = picker.next()) != null) {
+            board.makeMove(m);
+            if (board.isCheck(side)) {
+                board.undo();
+                continue;
+            }
+            evaluator.onMakeMove(m);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            evaluator.onUndoMove(m);
+            board.undo();
+            if (aborted) return 0;
+
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, m);
+                if (alpha >= beta) break;
+            }
+        }
+        return alpha;
+    }
+
+    private boolean checkAbort() {
+        if (!aborted && (nodes >= nodeLimit || time.shouldStop())) aborted = true;
+        return aborted;
+    }
+
+    private void updatePv(int ply, Move m) {
+        pvTable[ply][ply] = m;
+        for (int i = ply + 1; i < pvLength[ply + 1]; i++) pvTable[ply][i] = pvTable[ply + 1][i];
+        pvLength[ply] = Math.max(ply + 1, pvLength[ply + 1]);
+    }
+
+    private void storeKiller(int ply, short move) {
+        short[] k = killers[ply];
+        if (k[0] == move) return;
+        k[1] = k[0];
+        k[0] = move;
+    }
+
+    /**
+     * @return nodes visited by the current or last search
+     */
+    public long getNodes() { return nodes; }
+}
@@ -0,0 +1,30 @@
+package engine;
+
+import board.Move;
+import java.util.List;
+
+/**
+ * Outcome of a search: the move to play and how it was found.
+ */
+public class SearchResult {
+    public final Move bestMove; // null if the side to move has no legal move
+    public final int score;
+    public final int depth;
+    public final long nodes;
+    public final List<Move> pv;
+
+    /**
+     * @param bestMove move to play
+     * @param score score in centipawns from the side to move's point of view
+     * @param depth last fully searched depth
+     * @param nodes nodes visited
+     * @param pv principal variation starting with the best move
+     */
+    public SearchResult(Move bestMove, int score, int depth, long nodes, List<Move> pv) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.pv = pv;
+    }
+}
@@ -0,0 +1,208 @@
+package engine;
+
+/**
+ * Decides how long a search may run when playing with a clock.
+ *
+ * Every move gets two limits computed from the remaining time, the
+ * increment and the number of moves until the next time control:
+ * <ul>
+ *   <li>a soft limit, checked between iterations of iterative deepening,
+ *       which is stretched when the best move keeps changing or the score
+ *       drops (fail-low) and shrunk when the best move is stable;</li>
+ *   <li>a hard limit, checked inside the search, which is never exceeded.</li>
+ * </ul>
+ * All times are measured with {@link System#nanoTime()}. The per-node check
+ * only reads the clock every {@value #CHECK_INTERVAL} calls.
+ */
+public class TimeManager {
+    private static final int CHECK_INTERVAL = 1024; // must be a power of two
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final double MAX_SCALE = 2.5;
+    private static final double MIN_SCALE = 0.35;
+
+    private long moveOverheadMs = 30;
+
+    private volatile long startNanos;
+    private long softNanos = Long.MAX_VALUE;
+    private volatile long hardDeadline = Long.MAX_VALUE; // absolute nanoTime, moved by ponderHit
+    private boolean timed = false;
+    private volatile boolean pondering = false;
+    private volatile boolean stopRequested = false;
+    private int checkCounter = 0;
+
+    // Best-move stability tracking between iterations
+    private short lastBestMove = 0;
+    private int stableIterations = 0;
+    private int lastScore = 0;
+    private double scale = 1.0;
+
+    /**
+     * Sets the time reserved per move for communication and GUI lag.
+     *
+     * @param ms overhead in milliseconds
+     */
+    public void setMoveOverhead(long ms) {
+        this.moveOverheadMs = Math.max(0, ms);
+    }
+
+    /**
+     * Starts timing a move played with a clock.
+     *
+     * @param remainingMs time left on our clock
+     * @param incrementMs increment per move
+     * @param movesToGo moves until the next time control, or 0 if unknown
+     */
+    public void startClock(long remainingMs, long incrementMs, int movesToGo) {
+        reset();
+        long usable = Math.max(1, remainingMs - moveOverheadMs);
+        int mtg = movesToGo > 0 ? Math.min(movesToGo, 50) : DEFAULT_MOVES_TO_GO;
+
+        long softMs = usable / mtg + incrementMs * 3 / 4;
+        // Never plan to use more than a fraction of the clock on one move; the
+        // increment only arrives after the move, so it cannot lift the cap
+        long hardMs = Math.min(usable * 2 / 5 + incrementMs, softMs * 5);
+        hardMs = Math.min(hardMs, usable * 9 / 10);
+        softMs = Math.min(softMs, hardMs);
+
+        softNanos = Math.max(1, softMs) * 1_000_000L;
+        hardDeadline = startNanos + Math.max(1, hardMs) * 1_000_000L;
+        timed = true;
+    }
+
+    /**
+     * Starts timing a search with a fixed budget ("go movetime").
+     *
+     * @param moveTimeMs time for this move
+     */
+    public void startFixed(long moveTimeMs) {
+        reset();
+        long ms = Math.max(1, moveTimeMs - moveOverheadMs);
+        softNanos = ms * 1_000_000L;
+        hardDeadline = startNanos + softNanos;
+        timed = true;
+    }
+
+    /**
+     * Starts a search without a time limit (depth/node limited or infinite).
+     */
+    public void startUnlimited() {
+        reset();
+        timed = false;
+    }
+
+    private void reset() {
+        startNanos = System.nanoTime();
+        softNanos = Long.MAX_VALUE;
+        hardDeadline = Long.MAX_VALUE;
+        stopRequested = false;
+        checkCounter = 0;
+        lastBestMove = 0;
+        stableIterations = 0;
+        lastScore = 0;
+        scale = 1.0;
+    }
+
+    /**
+     * Marks the search as pondering: time limits are ignored until
+     * {@link #ponderHit()} is called.
+     *
+     * @param pondering true while searching on the opponent's time
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+    }
+
+    /**
+     * @return true while the search runs on the opponent's time
+     */
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     * The opponent played the expected move: keep searching, but on our own clock.
+     * The limits computed at start are rebased to the current time.
+     */
+    public void ponderHit() {
+        long now = System.nanoTime();
+        if (hardDeadline != Long.MAX_VALUE) hardDeadline += now - startNanos;
+        startNanos = now;
+        pondering = false;
+    }
+
+    /**
+     * Requests the search to stop as soon as possible (e.g., "stop" command).
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Cheap check called at every search node. The clock is only read
+     * once every {@value #CHECK_INTERVAL} calls.
+     *
+     * @return true if the search must abort now
+     */
+    public boolean shouldStop() {
+        if (stopRequested) return true;
+        if (!timed || ((++checkCounter & (CHECK_INTERVAL - 1)) != 0)) return false;
+        if (!pondering && System.nanoTime() >= hardDeadline) stopRequested = true;
+        return stopRequested;
+    }
+
+    /**
+     * Reports that the root search failed low (score dropped below the window).
+     * Gives the search extra time to find a better move.
+     */
+    public void onFailLow() {
+        scale = Math.min(MAX_SCALE, scale * 1.5);
+    }
+
+    /**
+     * Records the result of a finished iteration and decides whether to
+     * start another one.
+     *
+     * @param depth depth that was completed
+     * @param bestMove packed best move of the iteration
+     * @param score score of the iteration in centipawns
+     * @return true if another iteration should be started
+     */
+    public boolean onIterationComplete(int depth, short bestMove, int score) {
+        if (stopRequested) return false;
+
+        if (depth > 1) {
+            if (bestMove == lastBestMove) {
+                stableIterations++;
+                // A stable best move needs less time
+                if (stableIterations >= 3) scale = Math.max(MIN_SCALE, scale * 0.9);
+            } else {
+                // PV instability: the best move changed, spend more time
+                stableIterations = 0;
+                scale = Math.min(MAX_SCALE, scale * 1.3);
+            }
+            if (score < lastScore - 30) scale = Math.min(MAX_SCALE, scale * 1.2);
+        }
+        lastBestMove = bestMove;
+        lastScore = score;
+
+        if (!timed || pondering) return true;
+        long elapsed = System.nanoTime() - startNanos;
+        // The next iteration usually takes longer than all previous ones combined,
+        // so do not start one that cannot finish before the soft limit.
+        return elapsed < softNanos * scale * 0.6;
+    }
+
+    /**
+     * @return milliseconds elapsed since the search started
+     */
+    public long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    /**
+     * @return true if the search is bound by a clock
+     */
+    public boolean isTimed() {
+        return timed;
+    }
+}
@@ -0,0 +1,115 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results that can be shared by several
+ * {@link Search} instances running on different threads.
+ *
+ * Each slot is two longs: the packed entry data and the position key XORed
+ * with that data. Reads and writes take no lock; a slot torn by a concurrent
+ * write fails the key check on the next probe and is treated as a miss.
+ *
+ * Data layout (low to high bits): move 16, score 16, depth 8, bound 2.
+ */
+public class TranspositionTable implements MemoryBudget.Cache {
+    public static final int BOUND_EXACT = 0;
+    public static final int BOUND_LOWER = 1; // score is at least the stored value (fail high)
+    public static final int BOUND_UPPER = 2; // score is at most the stored value (fail low)
+
+    /** Returned by {@link #probe} when the position is not in the table. */
+    public static final long MISS = -1L;
+
+    private long[] checks;
+    private long[] data;
+    private int mask;
+
+    /**
+     * @param megabytes approximate table size; rounded down to a power of two entries
+     */
+    public TranspositionTable(int megabytes) {
+        resize((long) megabytes << 20);
+    }
+
+    /**
+     * Replaces the table with an empty one of about the given size.
+     * Must not be called while a search is using the table.
+     *
+     * @param bytes requested size; rounded down to a power of two entries, at least 1024
+     * @return the new size in bytes
+     */
+    @Override
+    public long resize(long bytes) {
+        long entries = Math.max(1024, bytes / 16);
+        int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        checks = null; // let the old arrays be collected before allocating
+        data = null;
+        checks = new long[size];
+        data = new long[size];
+        mask = size - 1;
+        return sizeInBytes();
+    }
+
+    private int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    /**
+     * @param key position key
+     * @return packed entry data, or {@link #MISS}
+     */
+    public long probe(long key) {
+        int s = slot(key);
+        long d = data[s];
+        if ((checks[s] ^ d) != key || d == 0) return MISS;
+        return d;
+    }
+
+    /**
+     * Stores a search result. An existing entry for another position is
+     * always replaced; an entry for the same position is kept only if it
+     * was searched deeper.
+     *
+     * @param key position key
+     * @param move packed best move, 0 if none
+     * @param score score relative to this node
+     * @param depth remaining depth of the search
+     * @param bound one of the BOUND_ constants
+     */
+    public void store(long key, short move, int score, int depth, int bound) {
+        int s = slot(key);
+        long old = data[s];
+        if ((checks[s] ^ old) == key && old != 0 && depth(old) > depth && bound != BOUND_EXACT) return;
+        long d = (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) bound << 40)
+                | (1L << 42); // never zero, so an empty slot cannot match key 0
+        data[s] = d;
+        checks[s] = key ^ d;
+    }
+
+    public static short move(long entry) { return (short) entry; }
+
+    public static int score(long entry) { return (short) (entry >>> 16); }
+
+    public static int depth(long entry) { return (int) (entry >>> 32) & 0xFF; }
+
+    public static int bound(long entry) { return (int) (entry >>> 40) & 3; }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        Arrays.fill(checks, 0);
+        Arrays.fill(data, 0);
+    }
+
+    /**
+     * @return heap bytes used by the table
+     */
+    @Override
+    public long sizeInBytes() {
+        return checks.length * 16L;
+    }
+}
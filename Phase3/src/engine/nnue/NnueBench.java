@@ -0,0 +1,78 @@
+package engine.nnue;
+
+import board.Board;
+import board.Move;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures evaluations per second of the network, with incremental
+ * accumulator updates along random games, for the scalar and (when
+ * available) the vector backend.
+ * Usage: NnueBench [network.nnue] [-evals N]
+ */
+public class NnueBench {
+
+    public static void main(String[] args) throws Exception {
+        NnueNetwork net = null;
+        long evals = 2_000_000;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-evals")) evals = Long.parseLong(args[++i]);
+            else net = NnueNetwork.load(new File(args[i]));
+        }
+        if (net == null) net = NnueNetwork.random(256, 32, 1);
+
+        run(new NnueEvaluator(net, new ScalarKernels()), evals);
+        NnueKernels best = NnueKernels.best();
+        if (!(best instanceof ScalarKernels)) run(new NnueEvaluator(net, best), evals);
+        else System.out.println("Vector API not available (start the JVM with --add-modules jdk.incubator.vector)");
+    }
+
+    private static void run(NnueEvaluator eval, long evals) {
+        // Pre-generate random games so move generation is not measured
+        Random rnd = new Random(7);
+        Board board = new Board();
+        Move[][] games = new Move[64][];
+        for (int g = 0; g < games.length; g++) {
+            board.resetBoard();
+            games[g] = new Move[40];
+            for (int p = 0; p < 40; p++) {
+                List<Move> moves = board.legalMoves(board.getSideToMove());
+                if (moves.isEmpty()) break;
+                Move m = moves.get(rnd.nextInt(moves.size()));
+                board.makeMove(m);
+                games[g][p] = m;
+            }
+            while (board.undo() != null) { }
+        }
+
+        long checksum = 0, done = 0;
+        long start = 0;
+        for (int pass = 0; pass < 2; pass++) { // first pass warms up the JIT
+            if (pass == 1) start = System.nanoTime();
+            long target = pass == 0 ? evals / 10 : evals;
+            done = 0;
+            while (done < target) {
+                for (Move[] game : games) {
+                    board.resetBoard();
+                    eval.refresh(board);
+                    int plies = 0;
+                    for (Move m : game) {
+                        if (m == null) break;
+                        board.makeMove(m);
+                        eval.onMakeMove(m);
+                        checksum += eval.evaluate(board);
+                        plies++;
+                    }
+                    for (int i = plies - 1; i >= 0; i--) eval.onUndoMove(game[i]);
+                    done += plies;
+                }
+            }
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-20s %,12.0f evals/s (update + evaluate), checksum %d%n",
+                eval.backend(), done / secs, checksum);
+    }
+}
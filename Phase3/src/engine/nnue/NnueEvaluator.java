@@ -0,0 +1,130 @@
+package engine.nnue;
+
+import board.Board;
+import board.Move;
+import board.Position;
+import engine.Evaluator;
+import engine.Search;
+import pieces.Piece;
+
+/**
+ * Efficiently updatable neural network (NNUE) evaluation.
+ *
+ * The first layer output (the accumulator) is kept for both perspectives
+ * on a stack indexed by search ply. Making a move copies the accumulator
+ * and only adds or subtracts the weight rows of the features that changed
+ * (moved piece on its old and new square, captured piece), so the 768 x H
+ * first layer is never recomputed during the search. Taking a move back
+ * just pops the stack.
+ */
+public class NnueEvaluator implements Evaluator {
+    private static final int CLIP = 127;       // clipped ReLU ceiling
+    private static final int HIDDEN_SHIFT = 6; // rescales the hidden layer back to [0, CLIP]
+    private static final int OUTPUT_DIVISOR = 16; // network output units per centipawn
+
+    private final NnueNetwork net;
+    private final NnueKernels kernels;
+    private final int h;
+    private final short[][] stack; // [ply][white perspective H | black perspective H]
+    private int top = 0;
+
+    private final int[] activations;
+    private final int[] hiddenOut;
+
+    /**
+     * @param net network weights
+     */
+    public NnueEvaluator(NnueNetwork net) {
+        this(net, NnueKernels.best());
+    }
+
+    NnueEvaluator(NnueNetwork net, NnueKernels kernels) {
+        this.net = net;
+        this.kernels = kernels;
+        this.h = net.hidden;
+        this.stack = new short[Search.MAX_PLY + 2][2 * h];
+        this.activations = new int[2 * h];
+        this.hiddenOut = new int[net.l1];
+    }
+
+    /**
+     * @return name of the arithmetic backend in use ("scalar" or "vector ...")
+     */
+    public String backend() {
+        return kernels.name();
+    }
+
+    @Override
+    public void refresh(Board board) {
+        top = 0;
+        short[] acc = stack[0];
+        System.arraycopy(net.ftBias, 0, acc, 0, h);
+        System.arraycopy(net.ftBias, 0, acc, h, h);
+        for (String color : new String[] {"white", "black"}) {
+            for (int i = board.pieceCount(color) - 1; i >= 0; i--) {
+                Piece p = board.pieceAt(color, i);
+                addFeature(acc, p, square(p.getPosition()));
+            }
+        }
+    }
+
+    @Override
+    public void onMakeMove(Move move) {
+        short[] acc = stack[top + 1];
+        System.arraycopy(stack[top], 0, acc, 0, 2 * h);
+        top++;
+
+        int from = square(move.from), to = square(move.to);
+        subFeature(acc, move.movedPiece, from);
+        addFeature(acc, move.movedPiece, to);
+        if (move.capturedPiece != null) subFeature(acc, move.capturedPiece, to);
+    }
+
+    @Override
+    public void onUndoMove(Move move) {
+        top--;
+    }
+
+    @Override
+    public int evaluate(Board board) {
+        short[] acc = stack[top];
+        boolean white = board.getSideToMove().equals("white");
+        // Side to move first, then the opponent
+        kernels.clamp(acc, white ? 0 : h, activations, 0, h, CLIP);
+        kernels.clamp(acc, white ? h : 0, activations, h, h, CLIP);
+
+        int in = 2 * h;
+        for (int j = 0; j < net.l1; j++) {
+            int z = net.l1Bias[j] + kernels.dot(activations, 0, net.l1Weights, j * in, in);
+            z >>= HIDDEN_SHIFT;
+            hiddenOut[j] = z < 0 ? 0 : (z > CLIP ? CLIP : z);
+        }
+        int out = net.outBias + kernels.dot(hiddenOut, 0, net.outWeights, 0, net.l1);
+        return out / OUTPUT_DIVISOR;
+    }
+
+    private void addFeature(short[] acc, Piece p, int sq) {
+        kernels.add(acc, 0, net.ftWeights, featureRow(p, sq, true), h);
+        kernels.add(acc, h, net.ftWeights, featureRow(p, sq, false), h);
+    }
+
+    private void subFeature(short[] acc, Piece p, int sq) {
+        kernels.sub(acc, 0, net.ftWeights, featureRow(p, sq, true), h);
+        kernels.sub(acc, h, net.ftWeights, featureRow(p, sq, false), h);
+    }
+
+    /**
+     * Offset of the weight row of a piece on a square, seen from one side.
+     * Each perspective sees its own pieces as indices 0-5 and the board
+     * flipped vertically for Black.
+     */
+    private int featureRow(Piece p, int sq, boolean whitePerspective) {
+        boolean own = p.getColor().equals("white") == whitePerspective;
+        int relSq = whitePerspective ? sq : sq ^ 56;
+        return (((own ? 0 : 6) + p.kind()) * 64 + relSq) * h;
+    }
+
+    private static int square(Position p) {
+        return p.getRow() * 8 + p.getCol();
+    }
+}
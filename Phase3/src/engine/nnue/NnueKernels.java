@@ -0,0 +1,52 @@
+package engine.nnue;
+
+/**
+ * Arithmetic used by the network, implemented once with plain loops
+ * ({@link ScalarKernels}) and once with SIMD vectors ({@link VectorKernels}).
+ */
+interface NnueKernels {
+
+    /**
+     * acc[accOff + i] += w[wOff + i] for i in [0, len)
+     */
+    void add(short[] acc, int accOff, short[] w, int wOff, int len);
+
+    /**
+     * acc[accOff + i] -= w[wOff + i] for i in [0, len)
+     */
+    void sub(short[] acc, int accOff, short[] w, int wOff, int len);
+
+    /**
+     * dst[dstOff + i] = clamp(src[srcOff + i], 0, max) for i in [0, len)
+     */
+    void clamp(short[] src, int srcOff, int[] dst, int dstOff, int len, int max);
+
+    /**
+     * @return sum of a[aOff + i] * b[bOff + i] for i in [0, len)
+     */
+    int dot(int[] a, int aOff, int[] b, int bOff, int len);
+
+    /**
+     * @return short name used in benchmark output
+     */
+    String name();
+
+    /**
+     * Picks the vector implementation when the incubator module is available
+     * (JVM started with --add-modules jdk.incubator.vector), otherwise the scalar one.
+     * Setting the system property nnue.scalar=true forces the scalar code.
+     *
+     * @return kernels to use
+     */
+    static NnueKernels best() {
+        if (!Boolean.getBoolean("nnue.scalar")) {
+            try {
+                return (NnueKernels) Class.forName("engine.nnue.VectorKernels")
+                        .getDeclaredConstructor().newInstance();
+            } catch (Throwable t) {
+                // Vector API not present in this JVM; fall through to scalar code
+            }
+        }
+        return new ScalarKernels();
+    }
+}
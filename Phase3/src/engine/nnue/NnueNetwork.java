@@ -0,0 +1,138 @@
+package engine.nnue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.SplittableRandom;
+
+/**
+ * Quantized weights of the evaluation network:
+ * 768 piece-square inputs per perspective -> H (int16 feature transformer)
+ * -> both perspectives concatenated (2H, clipped ReLU) -> L1 (int8) -> 1 (int8).
+ *
+ * File layout (little-endian): magic "OVNN", int version, int H, int L1,
+ * then int16 feature weights [768 * H], int16 feature biases [H],
+ * int8 hidden weights [L1 * 2H], int32 hidden biases [L1],
+ * int8 output weights [L1], int32 output bias.
+ * The int8 weights are widened to int on load so the dense layers can use
+ * plain int vector arithmetic.
+ */
+public class NnueNetwork {
+    static final int MAGIC = 0x4E4E564F; // "OVNN" read little-endian
+    static final int VERSION = 1;
+    public static final int INPUTS = 768;
+
+    final int hidden;
+    final int l1;
+    final short[] ftWeights;
+    final short[] ftBias;
+    final int[] l1Weights;
+    final int[] l1Bias;
+    final int[] outWeights;
+    final int outBias;
+
+    private NnueNetwork(int hidden, int l1, short[] ftWeights, short[] ftBias,
+                        int[] l1Weights, int[] l1Bias, int[] outWeights, int outBias) {
+        this.hidden = hidden;
+        this.l1 = l1;
+        this.ftWeights = ftWeights;
+        this.ftBias = ftBias;
+        this.l1Weights = l1Weights;
+        this.l1Bias = l1Bias;
+        this.outWeights = outWeights;
+        this.outBias = outBias;
+    }
+
+    /**
+     * Loads a network file.
+     *
+     * @param file network weights
+     * @return the network
+     * @throws IOException if the file is unreadable or has the wrong format
+     */
+    public static NnueNetwork load(File file) throws IOException {
+        ByteBuffer buf;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel ch = raf.getChannel()) {
+            buf = ByteBuffer.allocate((int) ch.size()).order(ByteOrder.LITTLE_ENDIAN);
+            while (buf.hasRemaining() && ch.read(buf) >= 0) { }
+            buf.flip();
+        }
+        if (buf.remaining() < 16 || buf.getInt() != MAGIC) throw new IOException("Not a network file: " + file);
+        if (buf.getInt() != VERSION) throw new IOException("Unsupported network version: " + file);
+        int h = buf.getInt(), l1 = buf.getInt();
+        long expected = 16L + 2L * INPUTS * h + 2L * h + (long) l1 * 2 * h + 4L * l1 + l1 + 4;
+        if (h <= 0 || l1 <= 0 || buf.limit() != expected) throw new IOException("Truncated network file: " + file);
+
+        short[] ftw = new short[INPUTS * h];
+        short[] ftb = new short[h];
+        buf.asShortBuffer().get(ftw);
+        buf.position(buf.position() + 2 * ftw.length);
+        buf.asShortBuffer().get(ftb);
+        buf.position(buf.position() + 2 * ftb.length);
+
+        int[] l1w = new int[l1 * 2 * h];
+        for (int i = 0; i < l1w.length; i++) l1w[i] = buf.get();
+        int[] l1b = new int[l1];
+        for (int i = 0; i < l1; i++) l1b[i] = buf.getInt();
+        int[] ow = new int[l1];
+        for (int i = 0; i < l1; i++) ow[i] = buf.get();
+        int ob = buf.getInt();
+        return new NnueNetwork(h, l1, ftw, ftb, l1w, l1b, ow, ob);
+    }
+
+    /**
+     * Writes the network in the file format read by {@link #load}.
+     *
+     * @param file destination
+     * @throws IOException on write failure
+     */
+    public void save(File file) throws IOException {
+        int size = 16 + 2 * ftWeights.length + 2 * ftBias.length + l1Weights.length + 4 * l1 + l1 + 4;
+        ByteBuffer buf = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(hidden).putInt(l1);
+        for (short w : ftWeights) buf.putShort(w);
+        for (short b : ftBias) buf.putShort(b);
+        for (int w : l1Weights) buf.put((byte) w);
+        for (int b : l1Bias) buf.putInt(b);
+        for (int w : outWeights) buf.put((byte) w);
+        buf.putInt(outBias);
+        buf.flip();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel ch = raf.getChannel()) {
+            ch.truncate(0);
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+    }
+
+    /**
+     * Creates a network with small random weights, for benchmarks and tests
+     * of the inference code.
+     *
+     * @param hidden feature transformer width
+     * @param l1 hidden layer width
+     * @param seed random seed
+     * @return untrained network
+     */
+    public static NnueNetwork random(int hidden, int l1, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        short[] ftw = new short[INPUTS * hidden];
+        for (int i = 0; i < ftw.length; i++) ftw[i] = (short) rnd.nextInt(-16, 17);
+        short[] ftb = new short[hidden];
+        for (int i = 0; i < hidden; i++) ftb[i] = (short) rnd.nextInt(0, 32);
+        int[] l1w = new int[l1 * 2 * hidden];
+        for (int i = 0; i < l1w.length; i++) l1w[i] = rnd.nextInt(-8, 9);
+        int[] l1b = new int[l1];
+        int[] ow = new int[l1];
+        for (int i = 0; i < l1; i++) ow[i] = rnd.nextInt(-64, 65);
+        return new NnueNetwork(hidden, l1, ftw, ftb, l1w, l1b, ow, 0);
+    }
+
+    /**
+     * @return width of one perspective of the feature transformer
+     */
+    public int getHidden() { return hidden; }
+}
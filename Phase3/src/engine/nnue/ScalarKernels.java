@@ -0,0 +1,37 @@
+package engine.nnue;
+
+/**
+ * Portable loop implementation of the network arithmetic.
+ */
+class ScalarKernels implements NnueKernels {
+
+    @Override
+    public void add(short[] acc, int accOff, short[] w, int wOff, int len) {
+        for (int i = 0; i < len; i++) acc[accOff + i] += w[wOff + i];
+    }
+
+    @Override
+    public void sub(short[] acc, int accOff, short[] w, int wOff, int len) {
+        for (int i = 0; i < len; i++) acc[accOff + i] -= w[wOff + i];
+    }
+
+    @Override
+    public void clamp(short[] src, int srcOff, int[] dst, int dstOff, int len, int max) {
+        for (int i = 0; i < len; i++) {
+            int v = src[srcOff + i];
+            dst[dstOff + i] = v < 0 ? 0 : (v > max ? max : v);
+        }
+    }
+
+    @Override
+    public int dot(int[] a, int aOff, int[] b, int bOff, int len) {
+        int sum = 0;
+        for (int i = 0; i < len; i++) sum += a[aOff + i] * b[bOff + i];
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
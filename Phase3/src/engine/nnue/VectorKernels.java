@@ -0,0 +1,79 @@
+package engine.nnue;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of the network arithmetic using the incubating
+ * Vector API. Uses the widest vectors the CPU supports (SSE/AVX on x86,
+ * NEON on ARM) and finishes any remainder with scalar loops.
+ *
+ * Only loaded through {@link NnueKernels#best()}, so the rest of the
+ * engine runs on JVMs without the jdk.incubator.vector module.
+ */
+class VectorKernels implements NnueKernels {
+    private static final VectorSpecies<Short> S = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> I = IntVector.SPECIES_PREFERRED;
+    private static final int PARTS = S.length() / I.length(); // int vectors per short vector
+
+    @Override
+    public void add(short[] acc, int accOff, short[] w, int wOff, int len) {
+        int i = 0;
+        for (int bound = S.loopBound(len); i < bound; i += S.length()) {
+            ShortVector.fromArray(S, acc, accOff + i)
+                    .add(ShortVector.fromArray(S, w, wOff + i))
+                    .intoArray(acc, accOff + i);
+        }
+        for (; i < len; i++) acc[accOff + i] += w[wOff + i];
+    }
+
+    @Override
+    public void sub(short[] acc, int accOff, short[] w, int wOff, int len) {
+        int i = 0;
+        for (int bound = S.loopBound(len); i < bound; i += S.length()) {
+            ShortVector.fromArray(S, acc, accOff + i)
+                    .sub(ShortVector.fromArray(S, w, wOff + i))
+                    .intoArray(acc, accOff + i);
+        }
+        for (; i < len; i++) acc[accOff + i] -= w[wOff + i];
+    }
+
+    @Override
+    public void clamp(short[] src, int srcOff, int[] dst, int dstOff, int len, int max) {
+        int i = 0;
+        for (int bound = S.loopBound(len); i < bound; i += S.length()) {
+            ShortVector v = ShortVector.fromArray(S, src, srcOff + i)
+                    .max((short) 0)
+                    .min((short) max);
+            for (int p = 0; p < PARTS; p++) {
+                ((IntVector) v.convertShape(VectorOperators.S2I, I, p))
+                        .intoArray(dst, dstOff + i + p * I.length());
+            }
+        }
+        for (; i < len; i++) {
+            int v = src[srcOff + i];
+            dst[dstOff + i] = v < 0 ? 0 : (v > max ? max : v);
+        }
+    }
+
+    @Override
+    public int dot(int[] a, int aOff, int[] b, int bOff, int len) {
+        IntVector sum = IntVector.zero(I);
+        int i = 0;
+        for (int bound = I.loopBound(len); i < bound; i += I.length()) {
+            sum = IntVector.fromArray(I, a, aOff + i)
+                    .mul(IntVector.fromArray(I, b, bOff + i))
+                    .add(sum);
+        }
+        int result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) result += a[aOff + i] * b[bOff + i];
+        return result;
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + S.vectorBitSize() + "-bit)";
+    }
+}
@@ -0,0 +1,35 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for saving or loading a game file.
+ * Disabled unless a recording turns it on.
+ */
+@Name("overloaders.GameFile")
+@Label("Game File")
+@Category({"Overloaders", "UI"})
+@Description("A game saved to or loaded from disk")
+@Enabled(false)
+@StackTrace(false)
+public class GameFileEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,34 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for computing the status of a position: check,
+ * legal move count, and checkmate, stalemate or draw.
+ * Disabled unless a recording turns it on.
+ */
+@Name("overloaders.GameStatus")
+@Label("Game Status")
+@Category({"Overloaders", "Board"})
+@Description("Checkmate, stalemate and draw evaluation of a position")
+@Enabled(false)
+@StackTrace(false)
+public class GameStatusEvent extends Event {
+    @Label("Side To Move")
+    public String sideToMove;
+
+    @Label("In Check")
+    public boolean inCheck;
+
+    @Label("Legal Moves")
+    public int legalMoves;
+
+    @Label("State")
+    public String state;
+}
@@ -0,0 +1,66 @@
+package events;
+
+import board.Position;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import pieces.Piece;
+
+/**
+ * Flight Recorder event for one call to {@link board.Board#movePiece},
+ * with the time it took and whether the move was played.
+ * Disabled unless a recording turns it on.
+ */
+@Name("overloaders.MovePiece")
+@Label("Move Piece")
+@Category({"Overloaders", "Board"})
+@Description("A move attempted on the board and its outcome")
+@Enabled(false)
+@StackTrace(false)
+public class MovePieceEvent extends Event {
+    public static final String MOVED = "moved";
+    public static final String NO_PIECE = "no piece";
+    public static final String NOT_A_MOVE = "not a move for the piece";
+    public static final String INTO_CHECK = "leaves king in check";
+
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    @Label("Piece")
+    public String piece;
+
+    @Label("Capture")
+    public boolean capture;
+
+    @Label("Outcome")
+    public String outcome;
+
+    /**
+     * Commits the event if it is being recorded.
+     *
+     * @param from origin square
+     * @param to target square
+     * @param moved piece on the origin square, or null
+     * @param captured piece on the target square, or null
+     * @param result one of the outcome constants
+     * @return true if the outcome is {@link #MOVED}
+     */
+    public boolean finish(Position from, Position to, Piece moved, Piece captured, String result) {
+        if (shouldCommit()) {
+            this.from = from.toString();
+            this.to = to.toString();
+            this.piece = moved == null ? null : moved.code();
+            this.capture = captured != null;
+            this.outcome = result;
+            commit();
+        }
+        return MOVED.equals(result);
+    }
+}
@@ -0,0 +1,30 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one repaint of the board panel.
+ * Disabled unless a recording turns it on.
+ */
+@Name("overloaders.Paint")
+@Label("Board Paint")
+@Category({"Overloaders", "UI"})
+@Description("Duration of ChessBoardPanel.paintComponent")
+@Enabled(false)
+@StackTrace(false)
+public class PaintEvent extends Event {
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Dragging")
+    public boolean dragging;
+}
@@ -0,0 +1,37 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one iteration of the iterative-deepening search.
+ * Disabled unless a recording turns it on.
+ */
+@Name("overloaders.SearchIteration")
+@Label("Search Iteration")
+@Category({"Overloaders", "Engine"})
+@Description("One depth of iterative deepening, including aspiration re-searches")
+@Enabled(false)
+@StackTrace(false)
+public class SearchIterationEvent extends Event {
+    @Label("Depth")
+    public int depth;
+
+    @Label("Score")
+    public int score;
+
+    @Label("Nodes")
+    public long nodes;
+
+    @Label("Best Move")
+    public String bestMove;
+
+    @Label("Completed")
+    @Description("False if the iteration was cut short by the time or node limit")
+    public boolean completed;
+}
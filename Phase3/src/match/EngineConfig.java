@@ -0,0 +1,92 @@
+package match;
+
+import board.Board;
+import engine.Evaluator;
+import engine.MaterialEvaluator;
+import engine.Search;
+import engine.SearchResult;
+import engine.TimeManager;
+import engine.nnue.NnueEvaluator;
+import engine.nnue.NnueNetwork;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Search limits and evaluation of one match participant, parsed from a
+ * comma-separated list such as "nodes=20000,depth=8,movetime=100".
+ *
+ * By default the engine evaluates with the built-in {@link MaterialEvaluator}
+ * tables. "eval=file" uses tuned weights written by the Texel tuner instead,
+ * and "nnue=file" a network, so a match can measure whether either plays
+ * stronger than the baseline. Files are read once, when the configuration
+ * is parsed.
+ */
+public class EngineConfig {
+    private int depth = Search.MAX_PLY;
+    private long nodes = Long.MAX_VALUE;
+    private long moveTimeMs = -1;
+    private MaterialEvaluator material = new MaterialEvaluator(); // immutable, shared by all searches
+    private NnueNetwork network; // null unless "nnue" is given
+    private final String description;
+
+    /**
+     * @param spec limits and evaluation as key=value pairs (depth, nodes, movetime, eval, nnue)
+     * @throws IllegalArgumentException on an unknown key, bad number or conflicting evaluations
+     * @throws IOException if a weights or network file cannot be read
+     */
+    public EngineConfig(String spec) throws IOException {
+        this.description = spec;
+        boolean weights = false;
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=", 2);
+            if (kv.length != 2) throw new IllegalArgumentException("Bad engine option: " + part);
+            switch (kv[0]) {
+                case "depth": depth = Integer.parseInt(kv[1]); break;
+                case "nodes": nodes = Long.parseLong(kv[1]); break;
+                case "movetime": moveTimeMs = Long.parseLong(kv[1]); break;
+                case "eval": material = MaterialEvaluator.load(new File(kv[1])); weights = true; break;
+                case "nnue": network = NnueNetwork.load(new File(kv[1])); break;
+                default: throw new IllegalArgumentException("Unknown engine option: " + kv[0]);
+            }
+        }
+        if (depth == Search.MAX_PLY && nodes == Long.MAX_VALUE && moveTimeMs < 0) {
+            throw new IllegalArgumentException("Engine needs a depth, nodes or movetime limit: " + spec);
+        }
+        if (weights && network != null) {
+            throw new IllegalArgumentException("Engine can use eval or nnue, not both: " + spec);
+        }
+    }
+
+    /**
+     * Creates a search instance for one game; instances are not shared between threads.
+     *
+     * @return a new search
+     */
+    public Search newSearch() {
+        TimeManager time = new TimeManager();
+        time.setMoveOverhead(0);
+        // The network evaluator keeps per-search accumulators, so each search gets its own
+        Evaluator evaluator = network != null ? new NnueEvaluator(network) : material;
+        return new Search(evaluator, time);
+    }
+
+    /**
+     * Searches the position within this configuration's limits.
+     *
+     * @param search search created by {@link #newSearch()}
+     * @param board position to search
+     * @return search result
+     */
+    public SearchResult think(Search search, Board board) {
+        TimeManager time = search.getTimeManager();
+        if (moveTimeMs >= 0) time.startFixed(moveTimeMs);
+        else time.startUnlimited();
+        return search.search(board, depth, nodes, null);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
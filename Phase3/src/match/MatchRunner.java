@@ -0,0 +1,245 @@
+package match;
+
+import board.Board;
+import board.Move;
+import board.Position;
+import engine.Search;
+import engine.SearchResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless engine-versus-engine match runner.
+ *
+ * Every worker thread plays whole games on its own {@link Board}. Games are
+ * played in pairs from the same opening with colors reversed. After each game
+ * the SPRT in {@link MatchStats} is updated and the match stops as soon as it
+ * accepts either hypothesis or the game limit is reached.
+ *
+ * Adjudication: a game is a draw by threefold repetition, the fifty-move rule
+ * or after a ply limit, and is resigned when both engines agree for several
+ * moves that one side is winning by a large margin.
+ */
+public class MatchRunner {
+    private static final int RESIGN_SCORE = 800;
+    private static final int RESIGN_MOVES = 4; // consecutive plies, so each engine agrees twice
+
+    private final EngineConfig engineA, engineB;
+    private final List<String> openings;
+    private final int maxGames;
+    private final int threads;
+    private final int maxPlies;
+    private final MatchStats stats;
+
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private final AtomicBoolean decided = new AtomicBoolean();
+
+    /**
+     * @param engineA engine under test
+     * @param engineB baseline engine
+     * @param openings opening lines (FEN or coordinate moves), already shuffled
+     * @param maxGames upper bound on games played
+     * @param threads concurrent games
+     * @param maxPlies plies after which a game is adjudicated a draw
+     * @param stats result accumulator and SPRT
+     * @throws IllegalArgumentException if an opening cannot be set up
+     */
+    public MatchRunner(EngineConfig engineA, EngineConfig engineB, List<String> openings,
+                       int maxGames, int threads, int maxPlies, MatchStats stats) {
+        // Check every opening now, so no game is scored from a position that was never reached
+        Board board = new Board();
+        for (String opening : openings) {
+            try {
+                setUpOpening(board, opening);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Bad opening \"" + opening + "\": " + e.getMessage(), e);
+            }
+        }
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.openings = openings;
+        this.maxGames = maxGames;
+        this.threads = threads;
+        this.maxPlies = maxPlies;
+        this.stats = stats;
+    }
+
+    /**
+     * Plays the match until the SPRT decides or the game limit is reached.
+     *
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public void run() throws InterruptedException {
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(() -> {
+                Board board = new Board();
+                Search searchA = engineA.newSearch();
+                Search searchB = engineB.newSearch();
+                int g;
+                while (!decided.get() && (g = nextGame.getAndIncrement()) < maxGames) {
+                    double score = playGame(board, searchA, searchB, g);
+                    stats.add(score);
+                    int n = stats.games();
+                    if (n % 20 == 0) report(n, start);
+                    if (stats.sprtDecision() != 0) decided.set(true);
+                }
+            }, "match-worker-" + i);
+            workers.add(t);
+            t.start();
+        }
+        for (Thread t : workers) t.join();
+
+        report(stats.games(), start);
+        int decision = stats.sprtDecision();
+        System.out.println(decision > 0 ? "SPRT: H1 accepted (A is stronger)"
+                : decision < 0 ? "SPRT: H0 accepted (A is not stronger)"
+                : "SPRT: inconclusive");
+    }
+
+    private void report(int games, long start) {
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games  %s  %.2f games/s%n", games, stats, games / Math.max(secs, 1e-9));
+    }
+
+    /**
+     * Plays one game. Even game numbers give engine A the white pieces.
+     *
+     * @return score of engine A
+     */
+    private double playGame(Board board, Search searchA, Search searchB, int gameNumber) {
+        setUpOpening(board, openings.get((gameNumber / 2) % openings.size()));
+        String colorA = gameNumber % 2 == 0 ? "white" : "black";
+
+        int resignCount = 0, resignSign = 0; // resignSign: +1 White winning, -1 Black winning
+        for (int ply = 0; ply < maxPlies; ply++) {
+            String side = board.getSideToMove();
+            boolean aToMove = side.equals(colorA);
+            SearchResult r = (aToMove ? engineA : engineB).think(aToMove ? searchA : searchB, board);
+
+            if (r.bestMove == null) {
+                if (!board.isCheck(side)) return 0.5; // stalemate
+                return aToMove ? 0.0 : 1.0; // checkmate
+            }
+
+            // Resign adjudication: both engines have seen the same side winning
+            // by a large margin for several plies. Scores are from the side to
+            // move's view, so turn them to White's before comparing.
+            int whiteScore = side.equals("white") ? r.score : -r.score;
+            int sign = whiteScore >= RESIGN_SCORE ? 1 : whiteScore <= -RESIGN_SCORE ? -1 : 0;
+            resignCount = sign == 0 ? 0 : sign == resignSign ? resignCount + 1 : 1;
+            resignSign = sign;
+            if (resignCount >= RESIGN_MOVES) return (sign > 0) == colorA.equals("white") ? 1.0 : 0.0;
+            board.makeMove(r.bestMove);
+            if (board.isDrawByRule()) return 0.5;
+        }
+        return 0.5;
+    }
+
+    /**
+     * Resets the board and plays the opening, which is either a FEN or a
+     * list of coordinate moves from the starting position.
+     *
+     * @throws IllegalArgumentException if the FEN is malformed or a move is not legal
+     */
+    private static void setUpOpening(Board board, String opening) {
+        if (opening.contains("/")) {
+            board.loadFen(opening);
+            return;
+        }
+        board.resetBoard();
+        for (String t : opening.trim().split("\\s+")) {
+            if (t.isEmpty()) continue;
+            if (t.length() != 4 || !board.movePiece(Position.fromAlgebraic(t.substring(0, 2)),
+                                                    Position.fromAlgebraic(t.substring(2, 4)))) {
+                throw new IllegalArgumentException("illegal move " + t);
+            }
+        }
+    }
+
+    /**
+     * Builds a default opening suite of random balanced-looking lines
+     * when no opening file is given.
+     */
+    private static List<String> randomOpenings(int count, int plies, Random rnd) {
+        List<String> lines = new ArrayList<>();
+        Board board = new Board();
+        while (lines.size() < count) {
+            board.resetBoard();
+            StringBuilder sb = new StringBuilder();
+            for (int p = 0; p < plies; p++) {
+                List<Move> moves = board.legalMoves(board.getSideToMove());
+                Move m = moves.get(rnd.nextInt(moves.size()));
+                board.makeMove(m);
+                sb.append(m).append(' ');
+            }
+            lines.add(sb.toString().trim());
+        }
+        return lines;
+    }
+
+    /**
+     * Command line entry point.
+     * Usage: MatchRunner -a nodes=20000 -b nodes=10000 [-openings file] [-games N]
+     * [-threads N] [-maxplies N] [-elo0 E] [-elo1 E] [-alpha A] [-beta B] [-seed S]
+     * An engine can add eval=weights.txt or nnue=network.nnue to its limits.
+     *
+     * @param args command line arguments
+     * @throws Exception on bad arguments or I/O failure
+     */
+    public static void main(String[] args) throws Exception {
+        String a = null, b = null, openingFile = null;
+        int games = 20000, threads = Runtime.getRuntime().availableProcessors(), maxPlies = 300;
+        double elo0 = 0, elo1 = 10, alpha = 0.05, beta = 0.05;
+        long seed = System.nanoTime();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-a": a = args[++i]; break;
+                case "-b": b = args[++i]; break;
+                case "-openings": openingFile = args[++i]; break;
+                case "-games": games = Integer.parseInt(args[++i]); break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                case "-maxplies": maxPlies = Integer.parseInt(args[++i]); break;
+                case "-elo0": elo0 = Double.parseDouble(args[++i]); break;
+                case "-elo1": elo1 = Double.parseDouble(args[++i]); break;
+                case "-alpha": alpha = Double.parseDouble(args[++i]); break;
+                case "-beta": beta = Double.parseDouble(args[++i]); break;
+                case "-seed": seed = Long.parseLong(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (a == null || b == null) {
+            System.err.println("Usage: MatchRunner -a nodes=20000 -b nodes=10000 [-openings file] [-games N] "
+                    + "[-threads N] [-maxplies N] [-elo0 E] [-elo1 E] [-alpha A] [-beta B] [-seed S]");
+            System.exit(1);
+        }
+
+        Random rnd = new Random(seed);
+        List<String> openings = openingFile != null ? readOpenings(openingFile) : randomOpenings(500, 4, rnd);
+        Collections.shuffle(openings, rnd);
+
+        MatchStats stats = new MatchStats(elo0, elo1, alpha, beta);
+        System.out.printf("A = %s, B = %s, %d openings, %d threads%n",
+                a, b, openings.size(), threads);
+        new MatchRunner(new EngineConfig(a), new EngineConfig(b), openings,
+                games, threads, maxPlies, stats).run();
+    }
+
+    private static List<String> readOpenings(String file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+            if (!line.isBlank() && !line.startsWith("#")) lines.add(line.trim());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,118 @@
+package match;
+
+/**
+ * Running win/draw/loss totals of engine A against engine B,
+ * with an Elo estimate and a sequential probability ratio test (SPRT).
+ *
+ * The SPRT uses the normal approximation of the generalized SPRT:
+ * LLR = n * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance),
+ * where s0 and s1 are the expected scores under the two Elo hypotheses.
+ */
+public class MatchStats {
+    private int wins, draws, losses;
+
+    private final double elo0, elo1;
+    private final double lowerBound, upperBound;
+
+    /**
+     * @param elo0 Elo difference of the null hypothesis (H0)
+     * @param elo1 Elo difference of the alternative hypothesis (H1)
+     * @param alpha false positive rate
+     * @param beta false negative rate
+     */
+    public MatchStats(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Records a finished game.
+     *
+     * @param scoreA 1 for a win of engine A, 0.5 for a draw, 0 for a loss
+     */
+    public synchronized void add(double scoreA) {
+        if (scoreA > 0.75) wins++;
+        else if (scoreA < 0.25) losses++;
+        else draws++;
+    }
+
+    /**
+     * @return number of games recorded
+     */
+    public synchronized int games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * @return log-likelihood ratio of H1 against H0
+     */
+    public synchronized double llr() {
+        int n = wins + draws + losses;
+        if (n == 0 || wins + losses == 0) return 0;
+        double mean = score();
+        double var = (wins * sq(1 - mean) + draws * sq(0.5 - mean) + losses * sq(mean)) / n;
+        if (var <= 0) return 0;
+        double s0 = expectedScore(elo0), s1 = expectedScore(elo1);
+        return n * (s1 - s0) * (2 * mean - s0 - s1) / (2 * var);
+    }
+
+    /**
+     * @return 1 if H1 is accepted, -1 if H0 is accepted, 0 if undecided
+     */
+    public synchronized int sprtDecision() {
+        double llr = llr();
+        if (llr >= upperBound) return 1;
+        if (llr <= lowerBound) return -1;
+        return 0;
+    }
+
+    /**
+     * @return average score of engine A
+     */
+    public synchronized double score() {
+        int n = wins + draws + losses;
+        return n == 0 ? 0.5 : (wins + 0.5 * draws) / n;
+    }
+
+    /**
+     * @return estimated Elo difference of A over B
+     */
+    public synchronized double elo() {
+        return eloFromScore(score());
+    }
+
+    /**
+     * @return half-width of the 95% confidence interval of the Elo estimate
+     */
+    public synchronized double eloError() {
+        int n = wins + draws + losses;
+        if (n == 0) return Double.POSITIVE_INFINITY;
+        double mean = score();
+        double var = (wins * sq(1 - mean) + draws * sq(0.5 - mean) + losses * sq(mean)) / n;
+        double margin = 1.96 * Math.sqrt(var / n);
+        double hi = eloFromScore(Math.min(mean + margin, 0.999));
+        double lo = eloFromScore(Math.max(mean - margin, 0.001));
+        return (hi - lo) / 2;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("W/D/L %d/%d/%d  Elo %.1f +/- %.1f  LLR %.2f [%.2f, %.2f]",
+                wins, draws, losses, elo(), eloError(), llr(), lowerBound, upperBound);
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double eloFromScore(double s) {
+        s = Math.min(Math.max(s, 0.001), 0.999);
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    private static double sq(double x) {
+        return x * x;
+    }
+}
@@ -0,0 +1,162 @@
+package pgn;
+
+import board.Board;
+import board.Move;
+import board.Position;
+import pieces.Piece;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One game read from or written to PGN: its tag pairs, its moves as
+ * packed shorts ({@link Move#pack()}) and its result.
+ *
+ * A game whose movetext could not be fully replayed keeps the moves up to
+ * the first unresolved one and reports the reason in {@link #getError()}.
+ */
+public class PgnGame {
+    static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private short[] moves = new short[128];
+    private int moveCount;
+    private String result = "*";
+    private String error;
+
+    /**
+     * Builds a game from the moves played on a board.
+     *
+     * @param board board whose history is the game
+     * @param tags tag pairs to write, in order; may be empty
+     * @param result "1-0", "0-1", "1/2-1/2" or "*"
+     * @return the game
+     */
+    public static PgnGame of(Board board, Map<String, String> tags, String result) {
+        PgnGame game = new PgnGame();
+        game.tags.putAll(tags);
+        String fen = board.copyAtStart().toFen();
+        if (!fen.equals(START_FEN)) {
+            game.tags.put("SetUp", "1");
+            game.tags.put("FEN", fen);
+        }
+        for (Move m : board.getHistory()) game.add(m.pack());
+        game.setResult(result);
+        return game;
+    }
+
+    /**
+     * @param name tag name, e.g. "White"
+     * @return the tag value, or null if the game has no such tag
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    /**
+     * @return all tag pairs in file order (read-only)
+     */
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * @param name tag name
+     * @param value tag value
+     */
+    public void setTag(String name, String value) {
+        tags.put(name, value);
+    }
+
+    /**
+     * @return "1-0", "0-1", "1/2-1/2" or "*"
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * @param result "1-0", "0-1", "1/2-1/2" or "*"
+     */
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    /**
+     * @return number of plies
+     */
+    public int moveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @param ply index, 0 for the first move
+     * @return packed move
+     */
+    public short move(int ply) {
+        if (ply >= moveCount) throw new IndexOutOfBoundsException("Ply " + ply + " of " + moveCount);
+        return moves[ply];
+    }
+
+    /**
+     * @return the packed moves (a copy)
+     */
+    public short[] moves() {
+        return Arrays.copyOf(moves, moveCount);
+    }
+
+    /**
+     * @return why the movetext could not be fully replayed, or null if it was
+     */
+    public String getError() {
+        return error;
+    }
+
+    void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * Appends a packed move.
+     *
+     * @param packed move from the current end of the game
+     */
+    public void add(short packed) {
+        if (moveCount == moves.length) moves = Arrays.copyOf(moves, moveCount * 2);
+        moves[moveCount++] = packed;
+    }
+
+    /**
+     * @return the position before the first move: the FEN tag if present, else the initial position
+     * @throws IllegalArgumentException if the FEN tag is malformed
+     */
+    public Board startPosition() {
+        Board board = new Board();
+        String fen = tags.get("FEN");
+        if (fen != null) board.loadFen(fen);
+        return board;
+    }
+
+    /**
+     * Plays the game's moves on its start position.
+     *
+     * @return the board after the last move, with the moves in its history
+     */
+    public Board replay() {
+        Board board = startPosition();
+        for (int i = 0; i < moveCount; i++) board.makeMove(unpack(board, moves[i]));
+        return board;
+    }
+
+    /**
+     * Rebuilds a packed move of a game that has already been checked.
+     */
+    static Move unpack(Board board, short packed) {
+        Position from = Move.unpackFrom(packed), to = Move.unpackTo(packed);
+        Piece piece = board.getPiece(from);
+        if (piece == null) throw new IllegalStateException("No piece on " + from);
+        return new Move(from, to, piece, board.getPiece(to));
+    }
+}
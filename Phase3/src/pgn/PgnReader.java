@@ -0,0 +1,306 @@
+package pgn;
+
+import board.Board;
+import board.Move;
+import board.San;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming PGN reader. The file is read through one reusable buffer, so
+ * archives of any size are parsed in constant memory, one game at a time.
+ *
+ * Each SAN move is resolved on a board that is reused from game to game
+ * ({@link San#resolve}). Comments, variations, numeric annotation glyphs
+ * and escape lines are skipped. A game whose movetext cannot be replayed
+ * (an illegal move, or castling and promotion, which this game does not
+ * have) is still returned, with the moves up to that point and an error.
+ */
+public class PgnReader implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private long position;
+    private final long end;
+    private int pos, limit;
+    private int pushback = -1;
+    private final Board board = new Board();
+    private final StringBuilder token = new StringBuilder(16);
+    private byte[] text = new byte[256];
+    private long gamesRead;
+
+    /**
+     * @param channel file to read from its current position; closed by {@link #close()}
+     * @throws IOException if the position cannot be read
+     */
+    public PgnReader(FileChannel channel) throws IOException {
+        this(channel, channel.position(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads only the games between two offsets of a file. The channel is read
+     * with positional reads, so several readers can share it across threads.
+     *
+     * @param channel file to read; closed by {@link #close()}
+     * @param start offset of the first game
+     * @param end offset just past the last game
+     */
+    public PgnReader(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+        this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * @param file PGN file
+     * @return a reader positioned at the start of the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static PgnReader open(Path file) throws IOException {
+        return new PgnReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the game, or null at the end of the file
+     * @throws IOException on read failure
+     */
+    public PgnGame next() throws IOException {
+        PgnGame game = null;
+        boolean inMoves = false;
+        int ply = 0;
+        while (true) {
+            int ch = skipSpaces();
+            if (ch < 0) break;
+            if (ch == '[') {
+                if (inMoves) { // a new tag section without a result ends the game
+                    pushback = ch;
+                    break;
+                }
+                if (game == null) game = new PgnGame();
+                readTag(game);
+                continue;
+            }
+            if (ch == '%' || ch == ';') {
+                skipLine();
+                continue;
+            }
+            if (game == null) game = new PgnGame();
+            if (!inMoves) {
+                inMoves = true;
+                startBoard(game);
+            }
+            if (ch == '{') {
+                skipComment();
+            } else if (ch == '(') {
+                skipVariation();
+            } else if (ch == '$') {
+                readToken(ch);
+            } else {
+                readToken(ch);
+                if (isResult()) {
+                    game.setResult(token.toString());
+                    break;
+                }
+                stripMoveNumber();
+                if (token.length() == 0 || game.getError() != null) continue;
+                Move m = San.resolve(board, token);
+                if (m == null) {
+                    game.setError("Cannot play '" + token + "' at ply " + (ply + 1));
+                } else {
+                    board.makeMove(m);
+                    game.add(m.pack());
+                    ply++;
+                }
+            }
+        }
+        if (game != null) gamesRead++;
+        return game;
+    }
+
+    /**
+     * @return number of games returned so far
+     */
+    public long gamesRead() {
+        return gamesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void startBoard(PgnGame game) {
+        String fen = game.getTag("FEN");
+        if (fen == null) {
+            board.resetBoard();
+            return;
+        }
+        try {
+            board.loadFen(fen);
+        } catch (IllegalArgumentException e) {
+            board.resetBoard();
+            game.setError("Bad FEN tag: " + fen);
+        }
+    }
+
+    /**
+     * Reads [Name "value"] after the opening bracket.
+     */
+    private void readTag(PgnGame game) throws IOException {
+        int ch = skipSpaces();
+        token.setLength(0);
+        while (ch >= 0 && ch != '"' && ch != ']' && !isSpace(ch)) {
+            token.append((char) ch);
+            ch = read();
+        }
+        String name = token.toString();
+        while (ch >= 0 && ch != '"' && ch != ']') ch = read();
+        int n = 0;
+        if (ch == '"') {
+            while ((ch = read()) >= 0 && ch != '"') {
+                if (ch == '\\') ch = read();
+                if (ch < 0) break;
+                if (n == text.length) text = Arrays.copyOf(text, n * 2);
+                text[n++] = (byte) ch;
+            }
+            while (ch >= 0 && ch != ']') ch = read();
+        }
+        if (!name.isEmpty()) game.setTag(name, new String(text, 0, n, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a movetext token starting with ch into {@link #token}.
+     */
+    private void readToken(int ch) throws IOException {
+        token.setLength(0);
+        while (ch >= 0 && !isSpace(ch) && ch != '{' && ch != '(' && ch != ')' && ch != '[' && ch != ';') {
+            token.append((char) ch);
+            ch = read();
+        }
+        if (ch >= 0 && !isSpace(ch)) pushback = ch;
+    }
+
+    private boolean isResult() {
+        return equalsToken("1-0") || equalsToken("0-1") || equalsToken("1/2-1/2") || equalsToken("*");
+    }
+
+    private boolean equalsToken(String s) {
+        if (token.length() != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (token.charAt(i) != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes a leading move number such as "12." or "12..." from the token.
+     */
+    private void stripMoveNumber() {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) i++;
+        if (i == token.length() || token.charAt(i) == '.') {
+            while (i < token.length() && token.charAt(i) == '.') i++;
+            token.delete(0, i);
+        }
+    }
+
+    private void skipComment() throws IOException {
+        int ch;
+        while ((ch = read()) >= 0 && ch != '}') { }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1, ch;
+        while (depth > 0 && (ch = read()) >= 0) {
+            if (ch == '(') depth++;
+            else if (ch == ')') depth--;
+            else if (ch == '{') skipComment();
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int ch;
+        while ((ch = read()) >= 0 && ch != '\n') { }
+    }
+
+    private int skipSpaces() throws IOException {
+        int ch;
+        while ((ch = read()) >= 0 && isSpace(ch)) { }
+        return ch;
+    }
+
+    private static boolean isSpace(int ch) {
+        return ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t' || ch == '\f' || ch == 0xFEFF;
+    }
+
+    /**
+     * @return next byte, or -1 at the end of the file
+     */
+    private int read() throws IOException {
+        if (pushback >= 0) {
+            int ch = pushback;
+            pushback = -1;
+            return ch;
+        }
+        if (pos == limit) {
+            if (position >= end) return -1;
+            buffer.clear();
+            if (end - position < BUFFER_BYTES) buffer.limit((int) (end - position));
+            int n;
+            do {
+                n = channel.read(buffer, position);
+            } while (n == 0);
+            if (n < 0) return -1;
+            position += n;
+            pos = 0;
+            limit = n;
+        }
+        return bytes[pos++] & 0xFF;
+    }
+
+    /**
+     * Command line entry point: reads a PGN file and reports how many games
+     * it holds, how many could not be replayed, and the reading speed.
+     * Usage: PgnReader file.pgn
+     *
+     * @param args command line arguments
+     * @throws IOException on read failure
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: PgnReader file.pgn");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        long moves = 0, errors = 0;
+        String firstError = null;
+        try (PgnReader reader = open(Paths.get(args[0]))) {
+            PgnGame g;
+            while ((g = reader.next()) != null) {
+                moves += g.moveCount();
+                if (g.getError() != null) {
+                    errors++;
+                    if (firstError == null) firstError = "game " + reader.gamesRead() + ": " + g.getError();
+                }
+            }
+            double secs = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d games, %d moves, %d not fully replayed in %.2f s (%.0f games/s)%n",
+                    reader.gamesRead(), moves, errors, secs, reader.gamesRead() / Math.max(secs, 1e-9));
+        }
+        if (firstError != null) System.out.println("first: " + firstError);
+    }
+}
@@ -0,0 +1,150 @@
+package pgn;
+
+import board.Board;
+import board.Move;
+import board.San;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Streaming PGN writer, the counterpart of {@link PgnReader}. Games are
+ * formatted into one reusable buffer and written to the channel whenever
+ * it fills, so any number of games can be written in constant memory.
+ *
+ * Each game gets the seven-tag roster (missing tags are written as "?"),
+ * then its other tags in order, then its movetext in SAN wrapped at 80
+ * columns and ended by the result.
+ */
+public class PgnWriter implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int LINE_WIDTH = 80;
+    private static final String[] ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final StringBuilder line = new StringBuilder(LINE_WIDTH + 16);
+    private final StringBuilder san = new StringBuilder(8);
+
+    /**
+     * @param channel destination; closed by {@link #close()}
+     */
+    public PgnWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * @param file PGN file, created or truncated
+     * @return a writer at the start of the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static PgnWriter create(Path file) throws IOException {
+        return new PgnWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Writes one game, followed by a blank line.
+     *
+     * @param game game whose moves have been checked, as read by {@link PgnReader} or built by {@link PgnGame#of}
+     * @throws IOException on write failure
+     */
+    public void write(PgnGame game) throws IOException {
+        Map<String, String> tags = game.getTags();
+        for (String name : ROSTER) {
+            String value = name.equals("Result") ? game.getResult() : tags.get(name);
+            writeTag(name, value == null ? "?" : value);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isRoster(tag.getKey())) writeTag(tag.getKey(), tag.getValue());
+        }
+        writeAscii("\n");
+
+        Board board = game.startPosition();
+        line.setLength(0);
+        for (int i = 0; i < game.moveCount(); i++) {
+            Move m = PgnGame.unpack(board, game.move(i));
+            san.setLength(0);
+            if (board.getSideToMove().equals("white")) {
+                san.append(board.fullmoveNumber()).append(". ");
+            } else if (i == 0) {
+                san.append(board.fullmoveNumber()).append("... ");
+            }
+            San.append(board, m, san);
+            word(san);
+            board.makeMove(m);
+        }
+        san.setLength(0);
+        san.append(game.getResult());
+        word(san);
+        line.append('\n');
+        writeAscii(line);
+        line.setLength(0);
+        writeAscii("\n");
+    }
+
+    /**
+     * Writes buffered output to the channel.
+     *
+     * @throws IOException on write failure
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static boolean isRoster(String name) {
+        for (String r : ROSTER) {
+            if (r.equals(name)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a movetext word to the current line, starting a new line first if it would not fit.
+     */
+    private void word(CharSequence w) throws IOException {
+        if (line.length() > 0 && line.length() + 1 + w.length() > LINE_WIDTH) {
+            line.append('\n');
+            writeAscii(line);
+            line.setLength(0);
+        }
+        if (line.length() > 0) line.append(' ');
+        line.append(w);
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        writeAscii("[");
+        writeAscii(name);
+        writeAscii(" \"");
+        byte[] utf8 = value.replace("\\", "\\\\").replace("\"", "\\\"").getBytes(StandardCharsets.UTF_8);
+        for (byte b : utf8) put(b);
+        writeAscii("\"]\n");
+    }
+
+    private void writeAscii(CharSequence s) throws IOException {
+        for (int i = 0; i < s.length(); i++) put((byte) s.charAt(i));
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) flush();
+        buffer.put(b);
+    }
+}
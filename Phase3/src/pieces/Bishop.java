@@ -12,6 +12,8 @@ import java.util.List;
  * until they are blocked by another piece.
  */
 public class Bishop extends Piece {
+    // Value computed from the original class, so older saved games still load
+    private static final long serialVersionUID = -9021509844632284119L;
 
     /**
      * Creates a Bishop with the specified color and starting position.
@@ -81,6 +83,36 @@ public class Bishop extends Piece {
         }
     }
 
+    /**
+     * Generates only the captures, walking each ray to the first piece.
+     *
+     * @param board the current chess board
+     * @return positions of enemy pieces the bishop can take
+     */
+    @Override
+    public List<Position> captureMoves(Board board) {
+        List<Position> m = new ArrayList<>();
+        addCaptureRay(m, board, -1, -1);
+        addCaptureRay(m, board, -1, 1);
+        addCaptureRay(m, board, 1, -1);
+        addCaptureRay(m, board, 1, 1);
+        return m;
+    }
+
+    /**
+     * Checks the one diagonal to the target instead of all four rays.
+     *
+     * @param board the current chess board
+     * @param target square to test
+     * @return true if the bishop can move there
+     */
+    @Override
+    public boolean canMoveTo(Board board, Position target) {
+        int dr = Math.abs(target.getRow() - position.getRow());
+        int dc = Math.abs(target.getCol() - position.getCol());
+        return dr == dc && dr > 0 && emptyOrEnemy(board, target) && pathClear(board, target);
+    }
+
     /**
      * Returns the identifying letter for a bishop.
      *
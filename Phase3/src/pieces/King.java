@@ -14,6 +14,8 @@ import java.util.List;
  * (Special moves like castling are NOT implemented here.)
  */
 public class King extends Piece {
+    // Value computed from the original class, so older saved games still load
+    private static final long serialVersionUID = -3925905261730786217L;
 
     /**
      * Creates a King with the given color and starting position.
@@ -68,6 +70,42 @@ public class King extends Piece {
         return m;
     }
 
+    /**
+     * Generates only the captures: adjacent squares holding an enemy piece.
+     *
+     * @param board the current chess board
+     * @return positions of enemy pieces the king can take
+     */
+    @Override
+    public List<Position> captureMoves(Board board) {
+        List<Position> m = new ArrayList<>();
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if (dr == 0 && dc == 0) continue;
+                int r = position.getRow() + dr;
+                int c = position.getCol() + dc;
+                if (!Position.inBounds(r, c)) continue;
+                Piece other = board.getPiece(new Position(r, c));
+                if (other != null && !other.getColor().equals(color)) m.add(new Position(r, c));
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Checks a one-square step directly.
+     *
+     * @param board the current chess board
+     * @param target square to test
+     * @return true if the king can move there
+     */
+    @Override
+    public boolean canMoveTo(Board board, Position target) {
+        int dr = Math.abs(target.getRow() - position.getRow());
+        int dc = Math.abs(target.getCol() - position.getCol());
+        return Math.max(dr, dc) == 1 && emptyOrEnemy(board, target);
+    }
+
     /**
      * Returns the character used to represent the King.
      *
@@ -15,6 +15,8 @@ import java.util.List;
  *  - 1 square perpendicular to that direction
  */
 public class Knight extends Piece {
+    // Value computed from the original class, so older saved games still load
+    private static final long serialVersionUID = 2161524826000603411L;
 
     /**
      * Constructs a Knight with a color and its starting position.
@@ -69,6 +71,40 @@ public class Knight extends Piece {
         return m;
     }
 
+    /**
+     * Generates only the captures: the L-shaped targets holding an enemy piece.
+     *
+     * @param board the current chess board
+     * @return positions of enemy pieces the knight can take
+     */
+    @Override
+    public List<Position> captureMoves(Board board) {
+        List<Position> m = new ArrayList<>();
+        int[][] d = {{-2,-1},{-2,1},{-1,-2},{-1,2},{1,-2},{1,2},{2,-1},{2,1}};
+        for (int[] x : d) {
+            int r = position.getRow() + x[0];
+            int c = position.getCol() + x[1];
+            if (!Position.inBounds(r, c)) continue;
+            Piece other = board.getPiece(new Position(r, c));
+            if (other != null && !other.getColor().equals(color)) m.add(new Position(r, c));
+        }
+        return m;
+    }
+
+    /**
+     * Checks an L-shaped jump directly.
+     *
+     * @param board the current chess board
+     * @param target square to test
+     * @return true if the knight can move there
+     */
+    @Override
+    public boolean canMoveTo(Board board, Position target) {
+        int dr = Math.abs(target.getRow() - position.getRow());
+        int dc = Math.abs(target.getCol() - position.getCol());
+        return dr * dc == 2 && emptyOrEnemy(board, target);
+    }
+
     /**
      * Returns the notation letter for the Knight.
      * Knights are represented by 'N' in chess notation.
@@ -10,6 +10,8 @@ import java.util.List;
  * Pawns move forward, with specific rules for their first move and capturing.
  */
 public class Pawn extends Piece {
+    // Value computed from the original class, so older saved games still load
+    private static final long serialVersionUID = 8937677377749235853L;
 
     /**
      * Creates a Pawn with a specified color and starting position.
@@ -78,6 +80,48 @@ public class Pawn extends Piece {
         return m; // Return all possible moves
     }
 
+    /**
+     * Generates only the diagonal captures; forward moves never capture.
+     *
+     * @param board the current board state
+     * @return positions of enemy pieces the pawn can take
+     */
+    @Override
+    public List<Position> captureMoves(Board board) {
+        List<Position> m = new ArrayList<>(2);
+        int rr = position.getRow() + (color.equals("white") ? -1 : 1);
+        for (int dc = -1; dc <= 1; dc += 2) {
+            int cc = position.getCol() + dc;
+            if (!Position.inBounds(rr, cc)) continue;
+            Piece target = board.getPiece(new Position(rr, cc));
+            if (target != null && !target.getColor().equals(color)) m.add(new Position(rr, cc));
+        }
+        return m;
+    }
+
+    /**
+     * Checks a push or capture to the target directly.
+     *
+     * @param board the current board state
+     * @param target square to test
+     * @return true if the pawn can move there
+     */
+    @Override
+    public boolean canMoveTo(Board board, Position target) {
+        int dir = color.equals("white") ? -1 : 1;
+        int dr = target.getRow() - position.getRow();
+        int dc = target.getCol() - position.getCol();
+        if (dc == 0) {
+            if (board.getPiece(target) != null) return false;
+            if (dr == dir) return true;
+            int startRow = color.equals("white") ? 6 : 1;
+            return dr == 2 * dir && position.getRow() == startRow
+                    && board.getPiece(new Position(position.getRow() + dir, position.getCol())) == null;
+        }
+        Piece o = board.getPiece(target);
+        return dr == dir && Math.abs(dc) == 1 && o != null && !o.getColor().equals(color);
+    }
+
     /**
      * Returns the identifying letter for a pawn.
      *
@@ -54,6 +54,90 @@ public abstract class Piece implements Serializable {
      */
     public abstract List<Position> possibleMoves(Board board);
 
+    /**
+     * Calculates only the capturing moves of this piece.
+     * Pieces override this to avoid generating their quiet moves;
+     * the default filters {@link #possibleMoves}.
+     *
+     * @param board current board
+     * @return positions holding an enemy piece that this piece can take
+     */
+    public List<Position> captureMoves(Board board) {
+        List<Position> m = possibleMoves(board);
+        m.removeIf(p -> board.getPiece(p) == null);
+        return m;
+    }
+
+    /**
+     * Tells whether this piece can move to a square under the same rules as
+     * {@link #possibleMoves}. Pieces override this with a direct look at the
+     * squares involved instead of generating every move; the default
+     * searches {@link #possibleMoves}.
+     *
+     * @param board current board
+     * @param target square to test
+     * @return true if target is one of this piece's possible moves
+     */
+    public boolean canMoveTo(Board board, Position target) {
+        for (Position p : possibleMoves(board)) {
+            if (p.equals(target)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param board current board
+     * @param target square to test
+     * @return true if the square is empty or holds an enemy piece
+     */
+    protected boolean emptyOrEnemy(Board board, Position target) {
+        Piece o = board.getPiece(target);
+        return o == null || !o.getColor().equals(color);
+    }
+
+    /**
+     * Checks the squares strictly between this piece and a target on the
+     * same rank, file or diagonal.
+     *
+     * @param board current board
+     * @param target square on a line from this piece
+     * @return true if nothing stands in between
+     */
+    protected boolean pathClear(Board board, Position target) {
+        int dr = Integer.signum(target.getRow() - position.getRow());
+        int dc = Integer.signum(target.getCol() - position.getCol());
+        int r = position.getRow() + dr, c = position.getCol() + dc;
+        while (r != target.getRow() || c != target.getCol()) {
+            if (board.getPiece(new Position(r, c)) != null) return false;
+            r += dr;
+            c += dc;
+        }
+        return true;
+    }
+
+    /**
+     * Adds the first piece met in one direction to a list if it is an enemy.
+     * Used by the sliding pieces to generate captures.
+     *
+     * @param m destination list
+     * @param b current board
+     * @param dr row step
+     * @param dc column step
+     */
+    protected void addCaptureRay(List<Position> m, Board b, int dr, int dc) {
+        int r = position.getRow() + dr;
+        int c = position.getCol() + dc;
+        while (Position.inBounds(r, c)) {
+            Piece o = b.getPiece(new Position(r, c));
+            if (o != null) {
+                if (!o.getColor().equals(color)) m.add(new Position(r, c));
+                return;
+            }
+            r += dr;
+            c += dc;
+        }
+    }
+
     /**
      * Returns the notation letter for the piece.
      *
@@ -61,6 +145,24 @@ public abstract class Piece implements Serializable {
      */
     protected abstract String pieceLetter();
 
+    /**
+     * Returns the notation letter as a character.
+     *
+     * @return e.g., 'K' for King
+     */
+    public char letter() {
+        return pieceLetter().charAt(0);
+    }
+
+    /**
+     * Returns the piece kind as an index, used by tables indexed by piece type.
+     *
+     * @return 0 = pawn, 1 = knight, 2 = bishop, 3 = rook, 4 = queen, 5 = king
+     */
+    public int kind() {
+        return "PNBRQK".indexOf(letter());
+    }
+
     /**
      * Returns the class name as the type.
      *
@@ -16,6 +16,8 @@ import java.util.List;
  *  - Diagonal:     4 diagonal directions
  */
 public class Queen extends Piece {
+    // Value computed from the original class, so older saved games still load
+    private static final long serialVersionUID = -7282924436827716194L;
 
     /**
      * Creates a Queen with the given color and position.
@@ -97,6 +99,41 @@ public class Queen extends Piece {
         }
     }
 
+    /**
+     * Generates only the captures, walking each ray to the first piece.
+     *
+     * @param board the current chess board
+     * @return positions of enemy pieces the queen can take
+     */
+    @Override
+    public List<Position> captureMoves(Board board) {
+        List<Position> m = new ArrayList<>();
+        addCaptureRay(m, board, -1, 0);
+        addCaptureRay(m, board, 1, 0);
+        addCaptureRay(m, board, 0, -1);
+        addCaptureRay(m, board, 0, 1);
+        addCaptureRay(m, board, -1, -1);
+        addCaptureRay(m, board, -1, 1);
+        addCaptureRay(m, board, 1, -1);
+        addCaptureRay(m, board, 1, 1);
+        return m;
+    }
+
+    /**
+     * Checks the one line or diagonal to the target instead of all eight rays.
+     *
+     * @param board the current chess board
+     * @param target square to test
+     * @return true if the queen can move there
+     */
+    @Override
+    public boolean canMoveTo(Board board, Position target) {
+        int dr = Math.abs(target.getRow() - position.getRow());
+        int dc = Math.abs(target.getCol() - position.getCol());
+        boolean line = (dr == 0) != (dc == 0) || (dr == dc && dr > 0);
+        return line && emptyOrEnemy(board, target) && pathClear(board, target);
+    }
+
     /**
      * Returns the letter used in chess notation.
      * @return "Q" representing Queen
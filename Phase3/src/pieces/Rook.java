@@ -10,6 +10,8 @@ import java.util.List;
  * A rook moves horizontally or vertically any number of squares until blocked.
  */
 public class Rook extends Piece {
+    // Value computed from the original class, so older saved games still load
+    private static final long serialVersionUID = -1054820767737476984L;
 
     /**
      * Creates a Rook with the specified color and starting position.
@@ -80,6 +82,36 @@ public class Rook extends Piece {
         }
     }
 
+    /**
+     * Generates only the captures, walking each ray to the first piece.
+     *
+     * @param board the current chess board
+     * @return positions of enemy pieces the rook can take
+     */
+    @Override
+    public List<Position> captureMoves(Board board) {
+        List<Position> m = new ArrayList<>();
+        addCaptureRay(m, board, -1, 0);
+        addCaptureRay(m, board, 1, 0);
+        addCaptureRay(m, board, 0, -1);
+        addCaptureRay(m, board, 0, 1);
+        return m;
+    }
+
+    /**
+     * Checks the one line to the target instead of all four rays.
+     *
+     * @param board the current chess board
+     * @param target square to test
+     * @return true if the rook can move there
+     */
+    @Override
+    public boolean canMoveTo(Board board, Position target) {
+        boolean sameRow = target.getRow() == position.getRow();
+        boolean sameCol = target.getCol() == position.getCol();
+        return sameRow != sameCol && emptyOrEnemy(board, target) && pathClear(board, target);
+    }
+
     /**
      * Returns the identifying letter for a rook.
      *
@@ -0,0 +1,169 @@
+package tools;
+
+import board.Board;
+import board.Move;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guards the move-generation hot paths against allocation regressions.
+ *
+ * Each check runs a fixed workload a few times to warm up the JIT, then
+ * runs it again and measures the bytes the current thread allocated with
+ * {@link ThreadMXBean#getThreadAllocatedBytes(long)}. The
+ * bytes per operation are compared with a budget; the program prints one
+ * line per check and exits with status 1 if any check is over budget, so
+ * it can run as a build step.
+ *
+ * The budgets are set a little above what the code allocates today. When a
+ * change lowers allocation, lower the budget with it.
+ */
+public class AllocationCheck {
+
+    private static final String[] FENS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w",
+            "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w",
+            "r2q1rk1/pp2bppp/2n1pn2/3p4/3P4/2NBPN2/PP3PPP/R2Q1RK1 w",
+            "8/5pk1/6p1/8/3R4/6P1/5PK1/8 w",
+    };
+
+    /** A workload that returns the number of operations it performed. */
+    private interface Workload {
+        long run(Board[] boards);
+    }
+
+    private static class Check {
+        final String name;
+        final long budget; // bytes per operation
+        final Workload workload;
+
+        Check(String name, long budget, Workload workload) {
+            this.name = name;
+            this.budget = budget;
+            this.workload = workload;
+        }
+    }
+
+    private static final int WARMUP_RUNS = 3;
+    private static final String[] COLORS = {"white", "black"};
+    private static final List<Check> CHECKS = new ArrayList<>();
+
+    static {
+        CHECKS.add(new Check("perft node", 200, boards -> {
+            long nodes = 0;
+            for (Board b : boards) nodes += perft(b, 3);
+            return nodes;
+        }));
+        CHECKS.add(new Check("isCheck", 8, boards -> {
+            long ops = 0;
+            for (int i = 0; i < 2_000; i++) {
+                for (Board b : boards) {
+                    b.isCheck("white");
+                    b.isCheck("black");
+                    ops += 2;
+                }
+            }
+            return ops;
+        }));
+        CHECKS.add(new Check("possibleMoves", 200, boards -> {
+            long ops = 0;
+            for (int i = 0; i < 2_000; i++) {
+                for (Board b : boards) {
+                    for (String color : COLORS) {
+                        for (int j = b.pieceCount(color) - 1; j >= 0; j--) {
+                            b.pieceAt(color, j).possibleMoves(b);
+                            ops++;
+                        }
+                    }
+                }
+            }
+            return ops;
+        }));
+        CHECKS.add(new Check("movePiece+undo", 500, boards -> {
+            long ops = 0;
+            for (Board b : boards) {
+                List<Move> moves = b.legalMoves(b.getSideToMove());
+                for (int i = 0; i < 20; i++) {
+                    for (Move m : moves) {
+                        if (b.movePiece(m.from, m.to)) b.undo();
+                        ops++;
+                    }
+                }
+            }
+            return ops;
+        }));
+        CHECKS.add(new Check("status", 4_400, boards -> {
+            long ops = 0;
+            for (Board b : boards) {
+                for (Move m : b.legalMoves(b.getSideToMove())) {
+                    b.makeMove(m);
+                    b.status();
+                    b.undo();
+                    ops++;
+                }
+            }
+            return ops;
+        }));
+    }
+
+    private static long perft(Board b, int depth) {
+        if (depth == 0) return 1;
+        long n = 0;
+        for (Move m : b.legalMoves(b.getSideToMove())) {
+            b.makeMove(m);
+            n += perft(b, depth - 1);
+            b.undo();
+        }
+        return n;
+    }
+
+    /**
+     * Runs the workload until compiled and returns the bytes allocated per
+     * operation by the last run.
+     */
+    private static double measure(ThreadMXBean threads, Workload w, Board[] boards) {
+        for (int i = 0; i < WARMUP_RUNS; i++) w.run(boards);
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        long ops = w.run(boards);
+        long after = threads.getThreadAllocatedBytes(id);
+        return (after - before) / (double) Math.max(1, ops);
+    }
+
+    /**
+     * Command line entry point.
+     * Usage: AllocationCheck
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean)) {
+            System.err.println("This JVM cannot measure per-thread allocation");
+            System.exit(1);
+        }
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Board[] boards = new Board[FENS.length];
+        for (int i = 0; i < FENS.length; i++) {
+            boards[i] = new Board();
+            boards[i].loadFen(FENS[i]);
+        }
+
+        int failures = 0;
+        for (Check c : CHECKS) {
+            double perOp = measure(threads, c.workload, boards);
+            boolean ok = perOp <= c.budget;
+            if (!ok) failures++;
+            System.out.printf("%-16s %10.1f bytes/op  budget %,8d  %s%n", c.name, perOp, c.budget, ok ? "ok" : "OVER BUDGET");
+        }
+        if (failures > 0) {
+            System.out.println(failures + " allocation check(s) failed");
+            System.exit(1);
+        }
+    }
+}
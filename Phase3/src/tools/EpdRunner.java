@@ -0,0 +1,193 @@
+package tools;
+
+import board.Board;
+import board.Move;
+import board.San;
+import engine.MaterialEvaluator;
+import engine.Search;
+import engine.SearchResult;
+import engine.TimeManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs an EPD test suite through the search and reports how many
+ * positions were solved, the time to solution and the aggregate speed.
+ *
+ * Each EPD line holds the first four FEN fields followed by operations
+ * separated by semicolons; "bm" (best moves), "am" (moves to avoid) and
+ * "id" are understood. Positions are searched in parallel, each worker
+ * with its own {@link Board} and {@link Search}.
+ */
+public class EpdRunner {
+
+    /**
+     * One parsed EPD record.
+     */
+    static class EpdPosition {
+        String fen;
+        String id = "";
+        List<String> bestMoves = new ArrayList<>();
+        List<String> avoidMoves = new ArrayList<>();
+    }
+
+    /**
+     * Result of searching one position.
+     */
+    static class Outcome {
+        EpdPosition position;
+        String played;
+        boolean solved;
+        long solvedAtMs = -1; // time at which the final correct move was first found
+        long nodes;
+        long timeMs;
+    }
+
+    /**
+     * Parses one EPD line.
+     *
+     * @param line EPD text
+     * @return parsed record, or null for blank lines and comments
+     * @throws IllegalArgumentException if the line has fewer than four fields
+     */
+    static EpdPosition parse(String line) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) return null;
+
+        String[] fields = line.split("\\s+", 5);
+        if (fields.length < 4) throw new IllegalArgumentException("Bad EPD: " + line);
+
+        EpdPosition p = new EpdPosition();
+        p.fen = fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3];
+        if (fields.length < 5) return p;
+
+        for (String op : fields[4].split(";")) {
+            op = op.trim();
+            if (op.isEmpty()) continue;
+            String[] parts = op.split("\\s+", 2);
+            String args = parts.length > 1 ? parts[1].trim() : "";
+            switch (parts[0]) {
+                case "bm": for (String m : args.split("\\s+")) p.bestMoves.add(m); break;
+                case "am": for (String m : args.split("\\s+")) p.avoidMoves.add(m); break;
+                case "id": p.id = args.replace("\"", ""); break;
+                default: break; // other operations are not used
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Searches one position with the given limits.
+     */
+    static Outcome solve(EpdPosition pos, long moveTimeMs, long nodeLimit) {
+        Board board = new Board();
+        board.loadFen(pos.fen);
+
+        TimeManager time = new TimeManager();
+        time.setMoveOverhead(0);
+        if (moveTimeMs > 0) time.startFixed(moveTimeMs);
+        else time.startUnlimited();
+
+        Outcome out = new Outcome();
+        out.position = pos;
+        Search search = new Search(new MaterialEvaluator(), time);
+        SearchResult r = search.search(board, Search.MAX_PLY, nodeLimit, (depth, score, nodes, ms, pv) -> {
+            boolean ok = isCorrect(board, pos, pv.get(0));
+            if (ok && out.solvedAtMs < 0) out.solvedAtMs = ms;
+            else if (!ok) out.solvedAtMs = -1;
+        });
+
+        out.timeMs = time.elapsedMillis();
+        out.nodes = r.nodes;
+        if (r.bestMove != null) {
+            out.played = San.toSan(board, r.bestMove);
+            out.solved = isCorrect(board, pos, r.bestMove);
+        }
+        if (!out.solved) out.solvedAtMs = -1;
+        return out;
+    }
+
+    private static boolean isCorrect(Board board, EpdPosition pos, Move move) {
+        for (String am : pos.avoidMoves) {
+            if (sameSquares(San.resolve(board, am), move)) return false;
+        }
+        if (pos.bestMoves.isEmpty()) return !pos.avoidMoves.isEmpty();
+        for (String bm : pos.bestMoves) {
+            if (sameSquares(San.resolve(board, bm), move)) return true;
+        }
+        return false;
+    }
+
+    private static boolean sameSquares(Move a, Move b) {
+        return a != null && b != null && a.from.equals(b.from) && a.to.equals(b.to);
+    }
+
+    /**
+     * Command line entry point.
+     * Usage: EpdRunner suite.epd [-movetime MS | -nodes N] [-threads N]
+     *
+     * @param args command line arguments
+     * @throws Exception on I/O failure
+     */
+    public static void main(String[] args) throws Exception {
+        String file = null;
+        long moveTime = 1000, nodes = Long.MAX_VALUE;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-movetime": moveTime = Long.parseLong(args[++i]); break;
+                case "-nodes": nodes = Long.parseLong(args[++i]); moveTime = 0; break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                default: file = args[i];
+            }
+        }
+        if (file == null) {
+            System.err.println("Usage: EpdRunner suite.epd [-movetime MS | -nodes N] [-threads N]");
+            System.exit(1);
+        }
+
+        List<EpdPosition> positions = readSuite(file);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<Outcome>> futures = new ArrayList<>();
+        final long mt = moveTime, nl = nodes;
+        for (EpdPosition p : positions) futures.add(pool.submit(() -> solve(p, mt, nl)));
+
+        int solved = 0;
+        long totalNodes = 0, solveTime = 0;
+        for (Future<Outcome> f : futures) {
+            Outcome o = f.get();
+            totalNodes += o.nodes;
+            if (o.solved) {
+                solved++;
+                solveTime += o.solvedAtMs;
+            }
+            System.out.printf("%-20s %-8s %-7s %6d ms %10d nodes%n", o.position.id,
+                    o.played == null ? "-" : o.played, o.solved ? "solved" : "failed",
+                    o.timeMs, o.nodes);
+        }
+        pool.shutdown();
+
+        double wall = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Solved %d / %d, average time to solution %d ms, %d nodes, %.0f nodes/s%n",
+                solved, positions.size(), solved == 0 ? 0 : solveTime / solved,
+                totalNodes, totalNodes / Math.max(wall, 1e-9));
+    }
+
+    private static List<EpdPosition> readSuite(String file) throws IOException {
+        List<EpdPosition> positions = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8)) {
+            EpdPosition p = parse(line);
+            if (p != null) positions.add(p);
+        }
+        return positions;
+    }
+}
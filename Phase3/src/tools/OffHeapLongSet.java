@@ -0,0 +1,132 @@
+package tools;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent open-addressing hash set of 64-bit values, stored off-heap in
+ * direct buffers so it can hold billions of entries without touching the
+ * Java heap.
+ *
+ * Each slot is one long; 0 marks an empty slot, so the value 0 is stored
+ * as a separate flag. Inserts claim a slot with a compare-and-set and
+ * never take a lock; entries are never removed. A single direct buffer
+ * holds at most 2 GB, so the table is split into power-of-two segments
+ * addressed by the high bits of the slot index.
+ */
+public class OffHeapLongSet {
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int SEGMENT_SHIFT = 27; // 2^27 slots = 1 GB per segment
+    private static final int MAX_PROBES = 1 << 16;
+
+    private final ByteBuffer[] segments;
+    private final long capacity; // power of two
+    private final long mask;
+    private final int segmentMask;
+    private final LongAdder size = new LongAdder();
+    private volatile boolean containsZero;
+
+    /**
+     * Allocates a set that uses at most the given number of bytes.
+     * Capacity is rounded down to a power of two; the set is usable up to a
+     * load of about 90%, so plan for roughly 9-10 bytes per entry.
+     *
+     * @param maxBytes memory limit for the slot array
+     * @throws IllegalArgumentException if the limit is below 1 KB
+     */
+    public OffHeapLongSet(long maxBytes) {
+        if (maxBytes < 1024) throw new IllegalArgumentException("Memory limit too small: " + maxBytes);
+        capacity = Long.highestOneBit(maxBytes / Long.BYTES);
+        mask = capacity - 1;
+        int slotsPerSegment = (int) Math.min(capacity, 1L << SEGMENT_SHIFT);
+        segments = new ByteBuffer[(int) (capacity / slotsPerSegment)];
+        segmentMask = slotsPerSegment - 1;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(slotsPerSegment * Long.BYTES).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Adds a value if it is not already present. Safe to call from any number of threads.
+     *
+     * @param value value to add
+     * @return true if the value was added, false if it was already present
+     * @throws IllegalStateException if no free slot is found because the set is full
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) return false;
+            synchronized (this) {
+                if (containsZero) return false;
+                containsZero = true;
+            }
+            size.increment();
+            return true;
+        }
+        long slot = mix(value) & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            ByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+            int offset = ((int) slot & segmentMask) * Long.BYTES;
+            long current = (long) LONGS.getVolatile(segment, offset);
+            if (current == value) return false;
+            if (current == 0) {
+                if (LONGS.compareAndSet(segment, offset, 0L, value)) {
+                    size.increment();
+                    return true;
+                }
+                // Lost the race for this slot; look at what the winner stored
+                if ((long) LONGS.getVolatile(segment, offset) == value) return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        throw new IllegalStateException("Set is full: " + size() + " of " + capacity + " slots used");
+    }
+
+    /**
+     * @param value value to look up
+     * @return true if the value has been added
+     */
+    public boolean contains(long value) {
+        if (value == 0) return containsZero;
+        long slot = mix(value) & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            long current = (long) LONGS.getVolatile(segments[(int) (slot >>> SEGMENT_SHIFT)],
+                    ((int) slot & segmentMask) * Long.BYTES);
+            if (current == value) return true;
+            if (current == 0) return false;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return number of distinct values added
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * @return number of slots
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return bytes of off-heap memory held by the slots
+     */
+    public long sizeInBytes() {
+        return capacity * Long.BYTES;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,266 @@
+package tools;
+
+import archive.ArchiveWriter;
+import archive.GameCodec;
+import engine.MemoryBudget;
+import pgn.PgnGame;
+import pgn.PgnReader;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Imports a PGN file into a game archive using all cores.
+ *
+ * The file is cut into chunks of about the requested size; each cut is
+ * moved forward, by scanning a memory-mapped window of the file, to the
+ * next tag section that follows a blank line, so no game is split. Chunks
+ * are parsed, validated and encoded on a {@link ForkJoinPool}, each task
+ * with its own {@link PgnReader} and {@link GameCodec} and therefore its
+ * own boards. Encoded chunks go through a bounded queue to the calling
+ * thread, which alone writes the {@link ArchiveWriter archive}, in file
+ * order, and reports progress.
+ *
+ * Validation is the replay done by {@link PgnReader}: every move must be
+ * made by a piece that can reach its square and must not leave the mover's
+ * king in check. Games with a move that fails, or that cannot be read,
+ * are counted as rejected and not written.
+ */
+public class PgnImport {
+    private static final int SCAN_WINDOW = 1 << 20;
+
+    private final Path source;
+    private final int threads;
+    private final long chunkBytes;
+    private final boolean compress;
+
+    private long games, moves, rejected, bytesDone;
+    private String firstRejection;
+
+    /** One encoded chunk, or the failure that stopped its task. */
+    private static class Batch {
+        final int index;
+        final long bytes;
+        final List<byte[]> records = new ArrayList<>();
+        long moves;
+        int rejected;
+        String firstRejection;
+        Throwable failure;
+
+        Batch(int index, long bytes) {
+            this.index = index;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * @param source PGN file
+     * @param threads parser threads
+     * @param chunkBytes approximate size of the piece of file each task parses
+     * @param compress true to compress the archive's blocks
+     */
+    public PgnImport(Path source, int threads, long chunkBytes, boolean compress) {
+        this.source = source;
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+        this.compress = compress;
+    }
+
+    /**
+     * Imports every game of the source file.
+     *
+     * @param archive destination; not closed
+     * @throws IOException if the source cannot be read or the archive written
+     * @throws InterruptedException if interrupted while waiting for parsers
+     */
+    public void run(OutputStream archive) throws IOException, InterruptedException {
+        long start = System.nanoTime(), lastReport = start;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<long[]> chunks = split(channel, size);
+
+            // At most `window` chunks are parsed or waiting at any time, so the
+            // queue never blocks a parser and memory stays bounded.
+            int window = 2 * threads;
+            BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(window);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Map<Integer, Batch> pending = new HashMap<>();
+            ArchiveWriter writer = new ArchiveWriter(archive, compress);
+            int submitted = 0, written = 0;
+            try {
+                while (written < chunks.size()) {
+                    while (submitted < chunks.size() && submitted - written < window) {
+                        int index = submitted++;
+                        long[] chunk = chunks.get(index);
+                        pool.execute(() -> {
+                            Batch b = new Batch(index, chunk[1] - chunk[0]);
+                            try {
+                                parse(channel, chunk[0], chunk[1], b);
+                            } catch (Throwable e) {
+                                b.failure = e; // even an Error must reach the writer, which waits for every batch
+                            }
+                            queue.add(b);
+                        });
+                    }
+                    Batch b = queue.take();
+                    if (b.failure instanceof IOException) throw (IOException) b.failure;
+                    if (b.failure instanceof Error) throw (Error) b.failure;
+                    if (b.failure != null) throw new IOException("Parsing failed in chunk " + b.index, b.failure);
+                    pending.put(b.index, b);
+                    Batch ready;
+                    while ((ready = pending.remove(written)) != null) {
+                        write(ready, writer);
+                        written++;
+                        long now = System.nanoTime();
+                        if (now - lastReport > 1_000_000_000L) {
+                            lastReport = now;
+                            report(start, size, false);
+                        }
+                    }
+                }
+                writer.finish();
+            } finally {
+                pool.shutdownNow();
+            }
+            report(start, size, true);
+        }
+    }
+
+    /**
+     * @return games written to the archive so far
+     */
+    public long games() {
+        return games;
+    }
+
+    /**
+     * @return games rejected so far because of an illegal or unreadable move
+     */
+    public long rejected() {
+        return rejected;
+    }
+
+    /**
+     * Cuts the file into chunks of about {@link #chunkBytes}, each ending where a game starts.
+     *
+     * @return start and end offsets of each chunk
+     */
+    private List<long[]> split(FileChannel channel, long size) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long begin = 0;
+        while (begin < size) {
+            long end = begin + chunkBytes >= size ? size : gameStartAfter(channel, begin + chunkBytes, size);
+            chunks.add(new long[]{begin, end});
+            begin = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Finds the first '[' at the start of a line that follows a blank line,
+     * which in exported PGN is where the next game's tag section begins.
+     *
+     * @return its offset, or the file size if there is none
+     */
+    private static long gameStartAfter(FileChannel channel, long from, long size) throws IOException {
+        boolean lineBlank = false, prevBlank = false, lineStart = false;
+        for (long base = from; base < size; base += SCAN_WINDOW) {
+            int length = (int) Math.min(SCAN_WINDOW, size - base);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+            for (int i = 0; i < length; i++) {
+                byte b = map.get(i);
+                if (b == '\n') {
+                    prevBlank = lineBlank;
+                    lineBlank = true;
+                    lineStart = true;
+                    continue;
+                }
+                if (lineStart && b == '[' && prevBlank) return base + i;
+                lineStart = false;
+                if (b != ' ' && b != '\r' && b != '\t') lineBlank = false;
+            }
+        }
+        return size;
+    }
+
+    private static void parse(FileChannel channel, long start, long end, Batch batch) throws IOException {
+        PgnReader reader = new PgnReader(channel, start, end); // shares the channel, so not closed
+        GameCodec codec = new GameCodec();
+        PgnGame g;
+        while ((g = reader.next()) != null) {
+            if (g.getError() != null) {
+                batch.rejected++;
+                if (batch.firstRejection == null) batch.firstRejection = g.getError();
+                continue;
+            }
+            batch.records.add(codec.encode(g));
+            batch.moves += g.moveCount();
+        }
+    }
+
+    private void write(Batch batch, ArchiveWriter writer) throws IOException {
+        for (byte[] record : batch.records) writer.addEncoded(record);
+        games += batch.records.size();
+        moves += batch.moves;
+        rejected += batch.rejected;
+        if (firstRejection == null) firstRejection = batch.firstRejection;
+        bytesDone += batch.bytes;
+    }
+
+    private void report(long start, long size, boolean done) {
+        double secs = (System.nanoTime() - start) / 1e9;
+        double rate = (games + rejected) / Math.max(secs, 1e-9);
+        if (done) {
+            System.out.printf("%,d games (%,d moves) imported, %,d rejected, in %.1f s: %,.0f games/s%n",
+                    games, moves, rejected, secs, rate);
+            if (firstRejection != null) System.out.println("first rejected: " + firstRejection);
+        } else {
+            System.out.printf("%,d games, %.0f%% of file, %,.0f games/s%n",
+                    games + rejected, 100.0 * bytesDone / Math.max(size, 1), rate);
+        }
+    }
+
+    /**
+     * Command line entry point. -store writes the archive uncompressed.
+     * Usage: PgnImport [-threads N] [-chunk SIZE] [-store] games.pgn archive
+     *
+     * @param args command line arguments
+     * @throws Exception on I/O failure
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long chunk = 4L << 20;
+        boolean compress = true;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                case "-chunk": chunk = MemoryBudget.parseSize(args[++i]); break;
+                case "-store": compress = false; break;
+                default: files.add(args[i]);
+            }
+        }
+        if (files.size() != 2) {
+            System.err.println("Usage: PgnImport [-threads N] [-chunk SIZE] [-store] games.pgn archive");
+            System.exit(1);
+        }
+        PgnImport importer = new PgnImport(Paths.get(files.get(0)), threads, chunk, compress);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(files.get(1))))) {
+            importer.run(out);
+        }
+    }
+}
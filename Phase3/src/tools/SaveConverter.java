@@ -0,0 +1,57 @@
+package tools;
+
+import board.Board;
+import board.SaveFile;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts games saved with Java serialization by older versions into the
+ * compact {@link SaveFile} format. Files already in the new format are
+ * copied through unchanged in content.
+ */
+public class SaveConverter {
+
+    /**
+     * Converts one file.
+     *
+     * @param in legacy or compact save file
+     * @param out file to write in the compact format
+     * @return the converted board
+     * @throws IOException if the input cannot be read or the output written
+     */
+    public static Board convert(Path in, Path out) throws IOException {
+        Board board;
+        try (InputStream input = Files.newInputStream(in)) {
+            board = SaveFile.readAny(input);
+        }
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(out))) {
+            SaveFile.write(board, output);
+        }
+        return board;
+    }
+
+    /**
+     * Command line entry point.
+     * Usage: SaveConverter legacy-save new-save
+     *
+     * @param args command line arguments
+     * @throws IOException on I/O failure
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: SaveConverter legacy-save new-save");
+            System.exit(1);
+        }
+        Path in = Paths.get(args[0]), out = Paths.get(args[1]);
+        Board board = convert(in, out);
+        System.out.printf("%s (%d bytes) -> %s (%d bytes), %d moves%n",
+                in, Files.size(in), out, Files.size(out), board.getHistory().size());
+    }
+}
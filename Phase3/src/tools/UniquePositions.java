@@ -0,0 +1,192 @@
+package tools;
+
+import board.Board;
+import board.Move;
+import engine.MemoryBudget;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the distinct positions reachable at each ply up to a given depth,
+ * for opening coverage studies.
+ *
+ * Every position reached is added, tagged with its ply, to one shared
+ * {@link OffHeapLongSet} of position keys. A position that is already in
+ * the set at the same ply was reached by another move order and its
+ * subtree has been (or is being) counted, so it is not expanded again;
+ * this turns the tree walk into a walk over the graph of unique positions.
+ *
+ * The tree is split into the unique positions at a small split ply, which
+ * worker threads then take from a shared index and enumerate depth-first,
+ * each with its own board. Positions are identified by their 64-bit
+ * Zobrist key, so at billions of positions a few collisions are possible.
+ */
+public class UniquePositions {
+
+    private final Board root;
+    private final int depth;
+    private final OffHeapLongSet seen;
+    private final LongAdder[] perPly;
+
+    /**
+     * @param root position to start from; not modified
+     * @param depth deepest ply to count
+     * @param memoryBytes memory limit for the position set
+     */
+    public UniquePositions(Board root, int depth, long memoryBytes) {
+        this.root = root;
+        this.depth = depth;
+        this.seen = new OffHeapLongSet(memoryBytes);
+        this.perPly = new LongAdder[depth + 1];
+        for (int i = 0; i <= depth; i++) perPly[i] = new LongAdder();
+        perPly[0].increment();
+    }
+
+    /**
+     * Enumerates all positions and counts the distinct ones per ply.
+     *
+     * @param threads number of worker threads
+     * @param splitPly ply whose unique positions become the parallel tasks
+     * @return distinct position count for each ply, index 0 being the root
+     * @throws Exception if a worker fails, for example because the set is full
+     */
+    public long[] run(int threads, int splitPly) throws Exception {
+        int split = Math.max(0, Math.min(splitPly, depth));
+        List<short[]> tasks = new ArrayList<>();
+        collect(root.copy(), 0, split, new short[split], tasks);
+
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < tasks.size()) {
+                        Board board = root.copy();
+                        for (short m : tasks.get(i)) board.makeMove(find(board, m));
+                        expand(board, split);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        long[] counts = new long[depth + 1];
+        for (int i = 0; i <= depth; i++) counts[i] = perPly[i].sum();
+        return counts;
+    }
+
+    /**
+     * @return the position set, for reporting its fill
+     */
+    public OffHeapLongSet set() {
+        return seen;
+    }
+
+    /**
+     * Walks the first plies single-threaded, keeping the path to every new
+     * position at the split ply.
+     */
+    private void collect(Board board, int ply, int split, short[] path, List<short[]> tasks) {
+        if (ply == split) {
+            tasks.add(path.clone());
+            return;
+        }
+        for (Move m : board.legalMoves(board.getSideToMove())) {
+            board.makeMove(m);
+            if (visit(board, ply + 1)) {
+                path[ply] = m.pack();
+                collect(board, ply + 1, split, path, tasks);
+            }
+            board.undo();
+        }
+    }
+
+    /**
+     * Depth-first enumeration below a task position.
+     */
+    private void expand(Board board, int ply) {
+        if (ply == depth) return;
+        for (Move m : board.legalMoves(board.getSideToMove())) {
+            board.makeMove(m);
+            if (visit(board, ply + 1)) expand(board, ply + 1);
+            board.undo();
+        }
+    }
+
+    /**
+     * Records the position at a ply.
+     *
+     * @return true if it had not been seen at that ply before
+     */
+    private boolean visit(Board board, int ply) {
+        if (!seen.add(board.positionKey() ^ (ply * 0x9E3779B97F4A7C15L))) return false;
+        perPly[ply].increment();
+        return true;
+    }
+
+    private static Move find(Board board, short packed) {
+        for (Move m : board.legalMoves(board.getSideToMove())) {
+            if (m.pack() == packed) return m;
+        }
+        throw new IllegalStateException("Move not legal here: " + packed);
+    }
+
+    /**
+     * Command line entry point.
+     * Usage: UniquePositions [-depth N] [-fen FEN] [-memory SIZE] [-threads N] [-split N]
+     *
+     * @param args command line arguments
+     * @throws Exception if enumeration fails
+     */
+    public static void main(String[] args) throws Exception {
+        int depth = 5, threads = Runtime.getRuntime().availableProcessors(), split = 2;
+        long memory = 1L << 30;
+        String fen = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-depth": depth = Integer.parseInt(args[++i]); break;
+                case "-fen": fen = args[++i]; break;
+                case "-memory": memory = MemoryBudget.parseSize(args[++i]); break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                case "-split": split = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Usage: UniquePositions [-depth N] [-fen FEN] [-memory SIZE]"
+                            + " [-threads N] [-split N]");
+                    System.exit(1);
+            }
+        }
+
+        Board board = new Board();
+        if (fen != null) board.loadFen(fen);
+
+        long start = System.nanoTime();
+        UniquePositions counter = new UniquePositions(board, depth, memory);
+        long[] counts;
+        try {
+            counts = counter.run(threads, split);
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof IllegalStateException)) throw e;
+            System.err.println(e.getCause().getMessage() + "; raise -memory");
+            System.exit(1);
+            return;
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+
+        for (int ply = 1; ply <= depth; ply++) System.out.printf("ply %2d: %,d%n", ply, counts[ply]);
+        OffHeapLongSet set = counter.set();
+        System.out.printf("%,d entries in %d MB (%.1f%% full), %.2f s%n", set.size(),
+                set.sizeInBytes() >> 20, 100.0 * set.size() / set.capacity(), secs);
+    }
+}
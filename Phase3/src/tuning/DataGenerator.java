@@ -0,0 +1,229 @@
+package tuning;
+
+import board.Board;
+import board.Move;
+import engine.MaterialEvaluator;
+import engine.Search;
+import engine.SearchResult;
+import engine.TimeManager;
+import engine.TranspositionTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates labeled training positions from self-play.
+ *
+ * Every worker thread plays games on its own {@link Board} with a shallow
+ * fixed-node search, keeps the quiet positions (side to move not in check,
+ * best move not a capture, score not a mate), labels them with the game
+ * result once it is known and appends them to its own shard file. Workers
+ * share nothing but two counters, so throughput grows with the core count.
+ *
+ * Records use the fixed-width {@link TrainingRecord} layout and are
+ * collected in a direct buffer that is written to the shard's
+ * {@link FileChannel} whenever it fills up.
+ */
+public class DataGenerator {
+    private static final int RESIGN_SCORE = 1000;
+    private static final int RESIGN_MOVES = 4;
+    private static final int BUFFER_RECORDS = 1 << 15;
+
+    private final Path outDir;
+    private final long nodesPerMove;
+    private final long target;
+    private final int randomPlies;
+    private final int maxPlies;
+    private final long seed;
+
+    private final AtomicLong positions = new AtomicLong();
+    private final AtomicLong games = new AtomicLong();
+
+    /**
+     * @param outDir directory receiving the shard files
+     * @param nodesPerMove search nodes per move
+     * @param target number of positions to generate
+     * @param randomPlies random moves played at the start of each game
+     * @param maxPlies plies after which a game is adjudicated a draw
+     * @param seed seed for the random openings
+     */
+    public DataGenerator(Path outDir, long nodesPerMove, long target, int randomPlies, int maxPlies, long seed) {
+        this.outDir = outDir;
+        this.nodesPerMove = nodesPerMove;
+        this.target = target;
+        this.randomPlies = randomPlies;
+        this.maxPlies = maxPlies;
+        this.seed = seed;
+    }
+
+    /**
+     * Runs the workers until the target is reached, printing progress.
+     *
+     * @param threads worker threads, one shard file each
+     * @throws Exception if a worker fails
+     */
+    public void run(int threads) throws Exception {
+        Files.createDirectories(outDir);
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int id = i;
+            Thread t = new Thread(() -> {
+                try {
+                    work(id);
+                } catch (IOException | RuntimeException e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                    positions.set(Long.MAX_VALUE / 2); // stop the others
+                }
+            }, "datagen-" + i);
+            workers.add(t);
+            t.start();
+        }
+
+        for (Thread t : workers) {
+            while (t.isAlive()) {
+                t.join(5000);
+                if (t.isAlive()) report(start);
+            }
+        }
+        if (!failures.isEmpty()) throw new IOException("Worker failed", failures.get(0));
+        report(start);
+    }
+
+    private void report(long start) {
+        double secs = (System.nanoTime() - start) / 1e9;
+        long n = Math.min(positions.get(), target);
+        System.out.printf("%d positions  %d games  %.0f positions/s%n", n, games.get(), n / Math.max(secs, 1e-9));
+    }
+
+    /**
+     * Plays games until the shared target is reached, writing to shard-{id}.bin.
+     */
+    private void work(int id) throws IOException {
+        Path file = outDir.resolve(String.format("shard-%03d.bin", id));
+        ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_RECORDS * TrainingRecord.BYTES);
+        ByteBuffer game = ByteBuffer.allocate(maxPlies * TrainingRecord.BYTES);
+        Random rnd = new Random(seed + id);
+        Board board = new Board();
+        TimeManager time = new TimeManager();
+        time.setMoveOverhead(0);
+        Search search = new Search(new MaterialEvaluator(), time, new TranspositionTable(16));
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (positions.get() < target) {
+                game.clear();
+                int result = playGame(board, search, time, rnd, game);
+                games.incrementAndGet();
+
+                int count = game.position() / TrainingRecord.BYTES;
+                if (count == 0) continue;
+                long before = positions.getAndAdd(count);
+                if (before >= target) break;
+                count = (int) Math.min(count, target - before);
+
+                // Label the game's records with the result and move them to the shard buffer
+                for (int r = 0; r < count; r++) {
+                    game.put(r * TrainingRecord.BYTES + 33, (byte) result);
+                    if (out.remaining() < TrainingRecord.BYTES) flush(ch, out);
+                    out.put(game.array(), r * TrainingRecord.BYTES, TrainingRecord.BYTES);
+                }
+            }
+            flush(ch, out);
+        }
+    }
+
+    private static void flush(FileChannel ch, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) ch.write(out);
+        out.clear();
+    }
+
+    /**
+     * Plays one game, appending unlabeled records of its quiet positions.
+     *
+     * @return result for White: 0 loss, 1 draw, 2 win
+     */
+    private int playGame(Board board, Search search, TimeManager time, Random rnd, ByteBuffer records) {
+        board.resetBoard();
+        for (int p = 0; p < randomPlies; p++) {
+            List<Move> moves = board.legalMoves(board.getSideToMove());
+            if (moves.isEmpty()) return 1; // random line ended the game; nothing was recorded
+            board.makeMove(moves.get(rnd.nextInt(moves.size())));
+        }
+
+        int resignCount = 0, resignSign = 0; // resignSign: +1 White winning, -1 Black winning
+        for (int ply = 0; ply < maxPlies; ply++) {
+            String side = board.getSideToMove();
+            boolean white = side.equals("white");
+            time.startUnlimited();
+            SearchResult r = search.search(board, Search.MAX_PLY, nodesPerMove, null);
+
+            if (r.bestMove == null) {
+                if (!board.isCheck(side)) return 1; // stalemate
+                return white ? 0 : 2;
+            }
+
+            // Resign adjudication: the same side has been winning by a large
+            // margin for several plies. Scores are from the side to move's
+            // view, so turn them to White's before comparing.
+            int whiteScore = white ? r.score : -r.score;
+            int sign = whiteScore >= RESIGN_SCORE ? 1 : whiteScore <= -RESIGN_SCORE ? -1 : 0;
+            resignCount = sign == 0 ? 0 : sign == resignSign ? resignCount + 1 : 1;
+            resignSign = sign;
+            if (resignCount >= RESIGN_MOVES) return sign > 0 ? 2 : 0;
+
+            boolean quiet = r.bestMove.capturedPiece == null && !board.isCheck(side)
+                    && Math.abs(r.score) < Search.MATE - Search.MAX_PLY;
+            if (quiet) TrainingRecord.write(board, white ? r.score : -r.score, 1, records);
+
+            board.makeMove(r.bestMove);
+            if (board.isDrawByRule()) return 1;
+        }
+        return 1;
+    }
+
+    /**
+     * Command line entry point.
+     * Usage: DataGenerator outdir [-positions N] [-nodes N] [-threads N]
+     * [-random N] [-maxplies N] [-seed S]
+     *
+     * @param args command line arguments
+     * @throws Exception on I/O failure
+     */
+    public static void main(String[] args) throws Exception {
+        String dir = null;
+        long target = 1_000_000, nodes = 5000, seed = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors(), random = 8, maxPlies = 400;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-positions": target = Long.parseLong(args[++i]); break;
+                case "-nodes": nodes = Long.parseLong(args[++i]); break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                case "-random": random = Integer.parseInt(args[++i]); break;
+                case "-maxplies": maxPlies = Integer.parseInt(args[++i]); break;
+                case "-seed": seed = Long.parseLong(args[++i]); break;
+                default: dir = args[i];
+            }
+        }
+        if (dir == null) {
+            System.err.println("Usage: DataGenerator outdir [-positions N] [-nodes N] [-threads N]"
+                    + " [-random N] [-maxplies N] [-seed S]");
+            System.exit(1);
+        }
+
+        new DataGenerator(Paths.get(dir), nodes, target, random, maxPlies, seed).run(threads);
+    }
+}
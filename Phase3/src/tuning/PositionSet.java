@@ -0,0 +1,116 @@
+package tuning;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Labeled training positions in a compact columnar layout.
+ *
+ * Instead of one object per position, all positions share a few primitive
+ * arrays: the feature list of position i is features[offsets[i] .. offsets[i+1]),
+ * and results[i] is the game result for White (0 = loss, 1 = draw, 2 = win).
+ * A feature is one piece on one square: kind * 64 + square, from its own side's
+ * point of view (Black squares are mirrored), stored as-is for White pieces and
+ * bitwise-complemented (negative) for Black pieces. This costs two bytes per piece.
+ */
+public class PositionSet {
+    private int count = 0;
+    private int[] offsets = new int[1024];
+    private short[] features = new short[1024 * 32];
+    private byte[] results = new byte[1024];
+
+    /**
+     * Loads positions from a text file. Each line starts with a FEN placement
+     * and contains a result: "1-0", "0-1", "1/2-1/2", or "[1.0]", "[0.5]", "[0.0]".
+     * Lines without a result are skipped.
+     *
+     * @param file input file
+     * @return the loaded positions
+     * @throws IOException on read failure
+     */
+    public static PositionSet load(Path file) throws IOException {
+        PositionSet set = new PositionSet();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int result = parseResult(line);
+                if (result >= 0) set.add(line, result);
+            }
+        }
+        set.trim();
+        return set;
+    }
+
+    static int parseResult(String line) {
+        if (line.contains("1/2-1/2") || line.contains("[0.5]")) return 1;
+        if (line.contains("1-0") || line.contains("[1.0]")) return 2;
+        if (line.contains("0-1") || line.contains("[0.0]")) return 0;
+        return -1;
+    }
+
+    /**
+     * Parses the placement field straight into the feature array.
+     */
+    private void add(String line, int result) {
+        if (count + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            results = Arrays.copyOf(results, results.length * 2);
+        }
+        int start = offsets[count];
+        int n = start;
+        int r = 0, c = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == ' ') break;
+            if (ch == '/') {
+                r++;
+                c = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                c += ch - '0';
+            } else {
+                int kind = "PNBRQK".indexOf(Character.toUpperCase(ch));
+                if (kind < 0 || r > 7 || c > 7) return; // malformed, drop the line
+                if (n == features.length) features = Arrays.copyOf(features, features.length * 2);
+                boolean white = Character.isUpperCase(ch);
+                int sq = white ? r * 8 + c : (7 - r) * 8 + c;
+                int f = kind * 64 + sq;
+                features[n++] = (short) (white ? f : ~f);
+                c++;
+            }
+        }
+        results[count] = (byte) result;
+        offsets[++count] = n;
+    }
+
+    private void trim() {
+        features = Arrays.copyOf(features, offsets[count]);
+        offsets = Arrays.copyOf(offsets, count + 1);
+        results = Arrays.copyOf(results, count);
+    }
+
+    /** @return number of positions */
+    public int size() { return count; }
+
+    int start(int i) { return offsets[i]; }
+
+    int end(int i) { return offsets[i + 1]; }
+
+    short feature(int j) { return features[j]; }
+
+    /**
+     * @param i position index
+     * @return game result for White: 0, 0.5 or 1
+     */
+    double result(int i) { return results[i] * 0.5; }
+
+    /**
+     * @return approximate heap bytes used by the arrays
+     */
+    public long bytes() {
+        return 4L * offsets.length + 2L * features.length + results.length;
+    }
+}
@@ -0,0 +1,263 @@
+package tuning;
+
+import engine.MaterialEvaluator;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the weights of {@link MaterialEvaluator} with the Texel method:
+ * minimize the mean squared error between game results and
+ * sigmoid(K * eval) over a large set of labeled positions.
+ *
+ * The evaluation is linear in its weights, so the gradient is computed
+ * directly from the precomputed features of {@link PositionSet}.
+ * Every mini-batch is split across worker threads that each accumulate a
+ * private gradient; the parts are summed and applied with Adam.
+ */
+public class TexelTuner {
+    private static final int N = MaterialEvaluator.WEIGHT_COUNT;
+
+    private final PositionSet data;
+    private final ExecutorService pool;
+    private final int threads;
+    private final double[] weights = new double[N];
+    private final double[][] partial; // per-thread gradient buffers
+    private double k;
+
+    /**
+     * @param data training positions
+     * @param threads worker threads
+     * @param initial starting weights
+     */
+    public TexelTuner(PositionSet data, int threads, int[] initial) {
+        this.data = data;
+        this.threads = threads;
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.partial = new double[threads][N];
+        for (int i = 0; i < N; i++) weights[i] = initial[i];
+    }
+
+    /**
+     * Evaluation of a position from White's point of view with the current weights.
+     */
+    private double eval(int i) {
+        double e = 0;
+        for (int j = data.start(i), end = data.end(i); j < end; j++) {
+            int f = data.feature(j);
+            if (f >= 0) e += weights[f >> 6] + weights[6 + f];
+            else e -= weights[~f >> 6] + weights[6 + ~f];
+        }
+        return e;
+    }
+
+    private static double sigmoid(double k, double e) {
+        return 1 / (1 + Math.exp(-k * e));
+    }
+
+    /**
+     * @return mean squared error over all positions for the given scaling constant
+     */
+    public double loss(double scale) throws Exception {
+        int n = data.size();
+        List<Callable<Double>> parts = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) n * t / threads), to = (int) ((long) n * (t + 1) / threads);
+            parts.add(() -> {
+                double sum = 0;
+                for (int i = from; i < to; i++) {
+                    double d = data.result(i) - sigmoid(scale, eval(i));
+                    sum += d * d;
+                }
+                return sum;
+            });
+        }
+        double total = 0;
+        for (Future<Double> f : pool.invokeAll(parts)) total += f.get();
+        return total / n;
+    }
+
+    /**
+     * Finds the scaling constant K that best fits the current weights,
+     * by ternary search (the loss is unimodal in K).
+     */
+    public double fitK() throws Exception {
+        double lo = 0.0001, hi = 0.05;
+        for (int it = 0; it < 40; it++) {
+            double m1 = lo + (hi - lo) / 3, m2 = hi - (hi - lo) / 3;
+            if (loss(m1) < loss(m2)) hi = m2;
+            else lo = m1;
+        }
+        k = (lo + hi) / 2;
+        return k;
+    }
+
+    /**
+     * Runs mini-batch gradient descent with Adam.
+     *
+     * @param epochs passes over the data
+     * @param batchSize positions per update
+     * @param learningRate Adam step size in centipawns
+     * @param rnd shuffling source
+     */
+    public void train(int epochs, int batchSize, double learningRate, Random rnd) throws Exception {
+        int n = data.size();
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+
+        double[] m = new double[N], v = new double[N], grad = new double[N];
+        double b1 = 0.9, b2 = 0.999, eps = 1e-8;
+        long step = 0;
+
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            long start = System.nanoTime();
+            for (int i = n - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                int t = order[i]; order[i] = order[j]; order[j] = t;
+            }
+
+            for (int b = 0; b < n; b += batchSize) {
+                int end = Math.min(n, b + batchSize);
+                gradient(order, b, end, grad);
+                step++;
+                double c1 = 1 - Math.pow(b1, step), c2 = 1 - Math.pow(b2, step);
+                for (int w = 0; w < N; w++) {
+                    if (w == 5) continue; // both sides always have a king, its value cancels out
+                    update(w, grad, m, v, b1, b2, eps, c1, c2, learningRate);
+                }
+            }
+            System.out.printf("epoch %d  loss %.6f  %.1f s%n", epoch, loss(k), (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    private void update(int w, double[] grad, double[] m, double[] v, double b1, double b2,
+                        double eps, double c1, double c2, double lr) {
+        m[w] = b1 * m[w] + (1 - b1) * grad[w];
+        v[w] = b2 * v[w] + (1 - b2) * grad[w] * grad[w];
+        weights[w] -= lr * (m[w] / c1) / (Math.sqrt(v[w] / c2) + eps);
+    }
+
+    /**
+     * Computes the mean gradient over order[from..to) in parallel.
+     */
+    private void gradient(int[] order, int from, int to, double[] grad) throws Exception {
+        List<Callable<Void>> parts = new ArrayList<>();
+        int len = to - from;
+        for (int t = 0; t < threads; t++) {
+            double[] g = partial[t];
+            int a = from + (int) ((long) len * t / threads), z = from + (int) ((long) len * (t + 1) / threads);
+            parts.add(() -> {
+                Arrays.fill(g, 0);
+                for (int idx = a; idx < z; idx++) {
+                    int i = order[idx];
+                    double s = sigmoid(k, eval(i));
+                    double d = (s - data.result(i)) * s * (1 - s) * k;
+                    for (int j = data.start(i), end = data.end(i); j < end; j++) {
+                        int f = data.feature(j);
+                        if (f >= 0) {
+                            g[f >> 6] += d;
+                            g[6 + f] += d;
+                        } else {
+                            g[~f >> 6] -= d;
+                            g[6 + ~f] -= d;
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<Void> f : pool.invokeAll(parts)) f.get();
+
+        Arrays.fill(grad, 0);
+        for (double[] g : partial) {
+            for (int w = 0; w < N; w++) grad[w] += g[w];
+        }
+        for (int w = 0; w < N; w++) grad[w] /= len;
+    }
+
+    /**
+     * @return current weights rounded to integers
+     */
+    public int[] roundedWeights() {
+        int[] w = new int[N];
+        for (int i = 0; i < N; i++) w[i] = (int) Math.round(weights[i]);
+        return w;
+    }
+
+    /**
+     * Releases the worker threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Writes weights in the format read by {@link MaterialEvaluator#load}:
+     * piece values on the first line, then one 8x8 table per piece kind.
+     */
+    static void write(int[] w, String file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8))) {
+            for (int i = 0; i < 6; i++) out.print(w[i] + (i < 5 ? " " : "\n"));
+            for (int kind = 0; kind < 6; kind++) {
+                out.println();
+                for (int r = 0; r < 8; r++) {
+                    StringBuilder sb = new StringBuilder();
+                    for (int c = 0; c < 8; c++) sb.append(String.format("%5d", w[6 + kind * 64 + r * 8 + c]));
+                    out.println(sb);
+                }
+            }
+        }
+    }
+
+    /**
+     * Command line entry point.
+     * Usage: TexelTuner positions.txt weights.txt [-epochs N] [-batch N] [-lr X] [-threads N]
+     *
+     * @param args command line arguments
+     * @throws Exception on I/O failure
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> files = new ArrayList<>();
+        int epochs = 10, batch = 16384, threads = Runtime.getRuntime().availableProcessors();
+        double lr = 1.0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-epochs": epochs = Integer.parseInt(args[++i]); break;
+                case "-batch": batch = Integer.parseInt(args[++i]); break;
+                case "-lr": lr = Double.parseDouble(args[++i]); break;
+                case "-threads": threads = Integer.parseInt(args[++i]); break;
+                default: files.add(args[i]);
+            }
+        }
+        if (files.size() != 2) {
+            System.err.println("Usage: TexelTuner positions.txt weights.txt [-epochs N] [-batch N] [-lr X] [-threads N]");
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        PositionSet data = PositionSet.load(Paths.get(files.get(0)));
+        System.out.printf("Loaded %d positions (%d MB) in %.1f s%n", data.size(), data.bytes() >> 20,
+                (System.nanoTime() - start) / 1e9);
+
+        TexelTuner tuner = new TexelTuner(data, threads, MaterialEvaluator.defaultWeights());
+        try {
+            System.out.printf("K = %.6f, initial loss %.6f%n", tuner.fitK(), tuner.loss(tuner.k));
+            tuner.train(epochs, batch, lr, new Random(1));
+        } finally {
+            tuner.shutdown();
+        }
+        write(tuner.roundedWeights(), files.get(1));
+        System.out.printf("Wrote %s after %.1f s%n", files.get(1), (System.nanoTime() - start) / 1e9);
+    }
+}
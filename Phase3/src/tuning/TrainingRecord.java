@@ -0,0 +1,83 @@
+package tuning;
+
+import board.Board;
+import board.Position;
+import pieces.Piece;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-width binary layout of one training position, as written by
+ * {@link DataGenerator}. Shard files are a sequence of these records with
+ * no header, so record i starts at byte i * {@link #BYTES}.
+ *
+ * Layout (36 bytes, big-endian):
+ * 32 bytes board, two squares per byte (A8 in the high nibble of byte 0,
+ * then row by row); nibble 0 is empty, 1-6 White P N B R Q K, 9-14 Black.
+ * 1 byte side to move (0 White, 1 Black).
+ * 1 byte game result for White (0 loss, 1 draw, 2 win).
+ * 2 bytes search score in centipawns from White's point of view.
+ */
+public final class TrainingRecord {
+    public static final int BYTES = 36;
+    private static final String KINDS = "PNBRQK";
+
+    private TrainingRecord() { }
+
+    /**
+     * Appends one record to the buffer.
+     *
+     * @param board position to store
+     * @param whiteScore score from White's point of view
+     * @param result game result for White (0, 1 or 2)
+     * @param out destination with at least {@link #BYTES} remaining
+     */
+    public static void write(Board board, int whiteScore, int result, ByteBuffer out) {
+        for (int sq = 0; sq < 64; sq += 2) {
+            out.put((byte) (nibble(board.getPiece(new Position(sq >> 3, sq & 7))) << 4
+                    | nibble(board.getPiece(new Position((sq + 1) >> 3, (sq + 1) & 7)))));
+        }
+        out.put((byte) (board.getSideToMove().equals("white") ? 0 : 1));
+        out.put((byte) result);
+        out.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, whiteScore)));
+    }
+
+    private static int nibble(Piece p) {
+        if (p == null) return 0;
+        return KINDS.indexOf(p.letter()) + 1 + (p.getColor().equals("white") ? 0 : 8);
+    }
+
+    /**
+     * Decodes a record into a text line in the format read by
+     * {@link PositionSet#load}, e.g. for inspecting shards.
+     *
+     * @param in buffer positioned at the start of a record; advanced past it
+     * @return FEN placement, side, White score and result, e.g. "... w 35 [0.5]"
+     */
+    public static String toText(ByteBuffer in) {
+        StringBuilder sb = new StringBuilder(90);
+        int empty = 0;
+        for (int i = 0; i < 32; i++) {
+            int b = in.get() & 0xFF;
+            for (int n : new int[] {b >> 4, b & 15}) {
+                if (n == 0) {
+                    empty++;
+                } else {
+                    if (empty > 0) sb.append(empty);
+                    empty = 0;
+                    char c = KINDS.charAt((n & 7) - 1);
+                    sb.append(n >= 8 ? Character.toLowerCase(c) : c);
+                }
+            }
+            if (i % 4 == 3) {
+                if (empty > 0) sb.append(empty);
+                empty = 0;
+                if (i < 31) sb.append('/');
+            }
+        }
+        sb.append(in.get() == 0 ? " w " : " b ");
+        int result = in.get();
+        sb.append(in.getShort()).append(result == 2 ? " [1.0]" : result == 1 ? " [0.5]" : " [0.0]");
+        return sb.toString();
+    }
+}
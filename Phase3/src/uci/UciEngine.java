@@ -0,0 +1,388 @@
+package uci;
+
+import board.Board;
+import board.Move;
+import engine.AnalysisCache;
+import engine.MaterialEvaluator;
+import engine.MemoryBudget;
+import engine.Search;
+import engine.SearchResult;
+import engine.TimeManager;
+import engine.TranspositionTable;
+import engine.nnue.NnueEvaluator;
+import engine.nnue.NnueNetwork;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.List;
+import javax.management.JMException;
+
+/**
+ * Headless front end speaking the Universal Chess Interface (UCI)
+ * over standard input and output, so the engine can be driven by
+ * tournament managers without any GUI.
+ *
+ * Supported commands: uci, isready, ucinewgame, setoption,
+ * position (startpos | fen ...) [moves ...], go (depth, nodes, movetime,
+ * wtime, btime, winc, binc, movestogo, infinite, ponder), stop, ponderhit, quit.
+ */
+public class UciEngine {
+    private final PrintStream out;
+    private final Board board = new Board();
+    private final TimeManager time = new TimeManager();
+    private final TranspositionTable table = new TranspositionTable(1);
+    private final MemoryBudget budget;
+    private Search search = new Search(new MaterialEvaluator(), time, table);
+    private AnalysisCache cache; // persistent results, null unless the AnalysisCache option is set
+
+    private Thread searchThread;
+    private final Object holdLock = new Object();
+    private boolean holdBestMove = false; // "go infinite" / "go ponder" wait for stop or ponderhit
+
+    /**
+     * @param out stream receiving engine output
+     */
+    public UciEngine(PrintStream out) {
+        this(out, MemoryBudget.parse(System.getProperty("memory.budget", "hash=64MB")));
+    }
+
+    /**
+     * @param out stream receiving engine output
+     * @param budget memory budget shared by the engine's caches
+     */
+    public UciEngine(PrintStream out, MemoryBudget budget) {
+        this.out = out;
+        this.budget = budget;
+        budget.register("transposition", 1, table);
+        budget.rebalance();
+    }
+
+    /**
+     * Reads commands until "quit" or end of input.
+     *
+     * @param in command source
+     * @throws IOException if reading fails
+     */
+    public void run(BufferedReader in) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            try {
+                if (!handle(line.trim())) break;
+            } catch (RuntimeException e) {
+                send("info string error: " + e.getMessage());
+            }
+        }
+        stopSearch();
+        closeCache();
+    }
+
+    /**
+     * Executes one command line.
+     *
+     * @param line command
+     * @return false when the engine should exit
+     */
+    public boolean handle(String line) {
+        if (line.isEmpty()) return true;
+        String[] t = line.split("\\s+");
+        switch (t[0]) {
+            case "uci":
+                send("id name Overloaders");
+                send("id author Salam Elbahri, Karthik Matli");
+                send("option name Hash type spin default " + (budget.getTotalBytes() >> 20) + " min 1 max 65536");
+                send("option name Move Overhead type spin default 30 min 0 max 5000");
+                send("option name Ponder type check default false");
+                send("option name EvalFile type string default <empty>");
+                send("option name AnalysisCache type string default <empty>");
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "ucinewgame":
+                stopSearch();
+                board.resetBoard();
+                table.clear();
+                break;
+            case "setoption":
+                setOption(t);
+                break;
+            case "position":
+                stopSearch();
+                position(t);
+                break;
+            case "go":
+                stopSearch();
+                go(t);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "ponderhit":
+                time.ponderHit();
+                release();
+                break;
+            case "quit":
+                stopSearch();
+                closeCache();
+                return false;
+            default:
+                send("info string unknown command " + t[0]);
+        }
+        return true;
+    }
+
+    private void setOption(String[] t) {
+        // setoption name <id...> [value <x...>]
+        StringBuilder name = new StringBuilder();
+        String value = null;
+        for (int i = 1; i < t.length; i++) {
+            if (t[i].equals("name")) continue;
+            if (t[i].equals("value")) {
+                value = String.join(" ", List.of(t).subList(i + 1, t.length));
+                break;
+            }
+            if (name.length() > 0) name.append(' ');
+            name.append(t[i]);
+        }
+        try {
+            if (name.toString().equalsIgnoreCase("Hash") && value != null) {
+                stopSearch();
+                budget.setTotal(Long.parseLong(value) << 20);
+                budget.rebalance();
+            } else if (name.toString().equalsIgnoreCase("Move Overhead") && value != null) {
+                time.setMoveOverhead(Long.parseLong(value));
+            } else if (name.toString().equalsIgnoreCase("EvalFile")) {
+                stopSearch();
+                if (value == null || value.isEmpty() || value.equals("<empty>")) {
+                    search = new Search(new MaterialEvaluator(), time, table);
+                } else {
+                    NnueEvaluator nnue = new NnueEvaluator(NnueNetwork.load(new File(value)));
+                    search = new Search(nnue, time, table);
+                    send("info string loaded network " + value + " using " + nnue.backend() + " kernels");
+                }
+            } else if (name.toString().equalsIgnoreCase("AnalysisCache")) {
+                stopSearch();
+                closeCache();
+                if (value != null && !value.isEmpty() && !value.equals("<empty>")) {
+                    cache = new AnalysisCache(Paths.get(value), 256);
+                    budget.register("analysis", 0, cache);
+                    send("info string analysis cache " + value + " (" + (cache.sizeInBytes() >> 20) + " MB)");
+                }
+                budget.rebalance();
+            }
+        } catch (NumberFormatException e) {
+            send("info string bad value for " + name);
+        } catch (IOException e) {
+            send("info string " + e.getMessage());
+        }
+    }
+
+    private void position(String[] t) {
+        int i = 1;
+        try {
+            if (t.length > 1 && t[1].equals("startpos")) {
+                board.resetBoard();
+                i = 2;
+            } else if (t.length > 1 && t[1].equals("fen")) {
+                StringBuilder fen = new StringBuilder();
+                for (i = 2; i < t.length && !t[i].equals("moves"); i++) fen.append(t[i]).append(' ');
+                board.loadFen(fen.toString());
+            } else {
+                return;
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+            return;
+        }
+
+        if (i < t.length && t[i].equals("moves")) {
+            for (i++; i < t.length; i++) {
+                Move m = findMove(board, t[i]);
+                if (m == null) {
+                    send("info string illegal move " + t[i]);
+                    return;
+                }
+                board.makeMove(m);
+            }
+        }
+    }
+
+    private void go(String[] t) {
+        int depth = Search.MAX_PLY;
+        long nodes = Long.MAX_VALUE;
+        long moveTime = -1, wtime = -1, btime = -1, winc = 0, binc = 0;
+        int movesToGo = 0;
+        boolean infinite = false, ponder = false;
+
+        for (int i = 1; i < t.length; i++) {
+            switch (t[i]) {
+                case "depth": depth = Integer.parseInt(t[++i]); break;
+                case "nodes": nodes = Long.parseLong(t[++i]); break;
+                case "movetime": moveTime = Long.parseLong(t[++i]); break;
+                case "wtime": wtime = Long.parseLong(t[++i]); break;
+                case "btime": btime = Long.parseLong(t[++i]); break;
+                case "winc": winc = Long.parseLong(t[++i]); break;
+                case "binc": binc = Long.parseLong(t[++i]); break;
+                case "movestogo": movesToGo = Integer.parseInt(t[++i]); break;
+                case "infinite": infinite = true; break;
+                case "ponder": ponder = true; break;
+                default: break;
+            }
+        }
+
+        boolean white = board.getSideToMove().equals("white");
+        long remaining = white ? wtime : btime;
+        if (moveTime >= 0) time.startFixed(moveTime);
+        else if (remaining >= 0 && !infinite) time.startClock(remaining, white ? winc : binc, movesToGo);
+        else time.startUnlimited();
+        time.setPondering(ponder);
+
+        synchronized (holdLock) {
+            holdBestMove = infinite || ponder;
+        }
+
+        final int maxDepth = depth;
+        final long maxNodes = nodes;
+        // Only a plain depth-limited search can be answered from the cache
+        final boolean fromCache = cache != null && depth < Search.MAX_PLY && nodes == Long.MAX_VALUE
+                && !time.isTimed() && !infinite && !ponder;
+        searchThread = new Thread(() -> {
+            SearchResult r = fromCache ? cached(maxDepth) : null;
+            if (r == null) {
+                r = search.search(board, maxDepth, maxNodes, this::info);
+                if (cache != null && r.bestMove != null && r.depth > 0) {
+                    cache.store(board.positionKey(), r.bestMove.pack(), r.score, r.depth);
+                }
+            }
+            waitForRelease();
+            if (r.bestMove == null) {
+                send("bestmove 0000");
+            } else if (r.pv.size() > 1) {
+                send("bestmove " + toUci(r.bestMove) + " ponder " + toUci(r.pv.get(1)));
+            } else {
+                send("bestmove " + toUci(r.bestMove));
+            }
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    /**
+     * @return a stored result at least as deep as requested, or null
+     */
+    private SearchResult cached(int depth) {
+        AnalysisCache.Entry e = cache.probe(board.positionKey());
+        if (e == null || e.depth < depth) return null;
+        Move m = AnalysisCache.find(board, e.move);
+        if (m == null) return null;
+        info(e.depth, e.score, 0, 0, List.of(m));
+        return new SearchResult(m, e.score, e.depth, 0, List.of(m));
+    }
+
+    private void closeCache() {
+        if (cache == null) return;
+        budget.unregister("analysis");
+        try {
+            cache.close();
+        } catch (IOException e) {
+            send("info string " + e.getMessage());
+        }
+        cache = null;
+    }
+
+    private void info(int depth, int score, long nodes, long elapsedMs, List<Move> pv) {
+        StringBuilder sb = new StringBuilder("info depth ").append(depth);
+        if (Math.abs(score) >= Search.MATE - Search.MAX_PLY) {
+            int plies = Search.MATE - Math.abs(score);
+            int moves = (plies + 1) / 2;
+            sb.append(" score mate ").append(score > 0 ? moves : -moves);
+        } else {
+            sb.append(" score cp ").append(score);
+        }
+        sb.append(" nodes ").append(nodes)
+          .append(" nps ").append(nodes * 1000 / Math.max(1, elapsedMs))
+          .append(" time ").append(elapsedMs)
+          .append(" pv");
+        for (Move m : pv) sb.append(' ').append(toUci(m));
+        send(sb.toString());
+    }
+
+    /**
+     * Stops a running search and waits for it to print its best move.
+     */
+    private void stopSearch() {
+        if (searchThread == null) return;
+        time.stop();
+        release();
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    private void release() {
+        synchronized (holdLock) {
+            holdBestMove = false;
+            holdLock.notifyAll();
+        }
+    }
+
+    private void waitForRelease() {
+        synchronized (holdLock) {
+            while (holdBestMove) {
+                try {
+                    holdLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private synchronized void send(String s) {
+        out.println(s);
+        out.flush();
+    }
+
+    /**
+     * Finds the legal move matching a UCI move string such as "e2e4".
+     * A trailing promotion letter is ignored since pawns do not promote in this game.
+     *
+     * @param board current position
+     * @param uci move text
+     * @return the matching legal move, or null if there is none
+     */
+    public static Move findMove(Board board, String uci) {
+        if (uci.length() < 4) return null;
+        String wanted = uci.substring(0, 4).toUpperCase();
+        for (Move m : board.legalMoves(board.getSideToMove())) {
+            if ((m.from.toString() + m.to).equals(wanted)) return m;
+        }
+        return null;
+    }
+
+    /**
+     * @param m a move
+     * @return the move in UCI notation, e.g., "e2e4"
+     */
+    public static String toUci(Move m) {
+        return (m.from.toString() + m.to).toLowerCase();
+    }
+
+    public static void main(String[] args) throws IOException {
+        UciEngine engine = new UciEngine(System.out);
+        try {
+            engine.budget.registerMBean();
+        } catch (JMException e) {
+            engine.send("info string memory budget not published: " + e.getMessage());
+        }
+        engine.run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+}
@@ -1,8 +1,10 @@
 package ui;
 
 import board.Board;
+import board.GameStatus;
 import board.Move;
 import board.Position;
+import events.PaintEvent;
 import pieces.Piece;
 import javax.swing.*;
 import java.awt.*;
@@ -59,7 +61,7 @@ public class ChessBoardPanel extends JPanel {
         this.selectedRow = -1;
         this.selectedCol = -1;
         this.draggedPiece = null;
-        this.currentTurn = "white";
+        this.currentTurn = board.getSideToMove();
         revalidate();
         repaint();
     }
@@ -175,6 +177,9 @@ public class ChessBoardPanel extends JPanel {
             // Off board - silently ignore or show message
             return;
         }
+        // No moves once the game has ended, including by repetition or the
+        // fifty-move rule, where the side to move still has legal moves
+        if (board.status().isGameOver()) return;
 
         Position start = new Position(fromRow, fromCol);
         Position end = new Position(toRow, toCol);
@@ -238,20 +243,33 @@ public class ChessBoardPanel extends JPanel {
         // Switch Turn
         currentTurn = currentTurn.equals("white") ? "black" : "white";
 
-        // Check Game Over Conditions
-        if (board.isCheckmate(currentTurn)) {
+        // Check Game Over Conditions (one status computation for all of them)
+        GameStatus status = board.status();
+        if (status.isCheckmate()) {
             repaint();
             JOptionPane.showMessageDialog(this,
                     "Checkmate! " + (currentTurn.equals("white") ? "Black" : "White") + " Wins!",
                     "Game Over", JOptionPane.INFORMATION_MESSAGE);
 
-        } else if (board.isStalemate(currentTurn)) {
+        } else if (status.isStalemate()) {
             repaint();
             JOptionPane.showMessageDialog(this,
                     "Stalemate! The game is a Draw.",
                     "Game Over", JOptionPane.INFORMATION_MESSAGE);
 
-        } else if (board.isCheck(currentTurn)) {
+        } else if (status.state == GameStatus.State.REPETITION) {
+            repaint();
+            JOptionPane.showMessageDialog(this,
+                    "Threefold repetition! The game is a Draw.",
+                    "Game Over", JOptionPane.INFORMATION_MESSAGE);
+
+        } else if (status.state == GameStatus.State.FIFTY_MOVES) {
+            repaint();
+            JOptionPane.showMessageDialog(this,
+                    "Fifty moves without a capture or pawn move! The game is a Draw.",
+                    "Game Over", JOptionPane.INFORMATION_MESSAGE);
+
+        } else if (status.inCheck) {
             repaint();
             JOptionPane.showMessageDialog(this,
                     "Check! " + (currentTurn.equals("white") ? "White" : "Black") + " King is under attack!",
@@ -261,6 +279,8 @@ public class ChessBoardPanel extends JPanel {
 
     @Override
     protected void paintComponent(Graphics g) {
+        PaintEvent event = new PaintEvent();
+        event.begin();
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -301,6 +321,13 @@ public class ChessBoardPanel extends JPanel {
         if (isDragging && draggedPiece != null) {
             drawPiece(g2d, draggedPiece, dragX - squareSize / 2, dragY - squareSize / 2);
         }
+
+        if (event.shouldCommit()) {
+            event.width = width;
+            event.height = height;
+            event.dragging = isDragging;
+            event.commit();
+        }
     }
 
     private void drawPiece(Graphics2D g2d, Piece piece, int x, int y) {
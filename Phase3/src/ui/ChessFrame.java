@@ -2,9 +2,20 @@ package ui;
 
 import board.Board;
 import board.Move;
+import board.San;
+import board.SaveFile;
+import engine.AnalysisCache;
+import engine.GameAnalyzer;
+import engine.MateSolver;
+import events.GameFileEvent;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.StringSelection;
+import java.awt.datatransfer.UnsupportedFlavorException;
 import java.io.*;
+import java.util.List;
 
 /**
  * The main application window for the Chess Game.
@@ -46,6 +57,10 @@ public class ChessFrame extends JFrame {
         menuBar.getNewGameItem().addActionListener(e -> newGame());
         menuBar.getSaveGameItem().addActionListener(e -> saveGame());
         menuBar.getLoadGameItem().addActionListener(e -> loadGame());
+        menuBar.getPasteFenItem().addActionListener(e -> pasteFen());
+        menuBar.getCopyFenItem().addActionListener(e -> copyFen());
+        menuBar.getFindMateItem().addActionListener(e -> findMate());
+        menuBar.getAnalyzeGameItem().addActionListener(e -> analyzeGame());
     }
 
     /**
@@ -89,13 +104,17 @@ public class ChessFrame extends JFrame {
         JFileChooser chooser = new JFileChooser();
         if (chooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
             File file = chooser.getSelectedFile();
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
-                oos.writeObject(boardPanel.getBoard());
-                JOptionPane.showMessageDialog(this, "Game Saved!");
+            GameFileEvent event = new GameFileEvent();
+            event.begin();
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                SaveFile.write(boardPanel.getBoard(), out);
+                event.success = true;
             } catch (IOException ex) {
                 ex.printStackTrace();
                 JOptionPane.showMessageDialog(this, "Error saving game: " + ex.getMessage());
             }
+            commitFileEvent(event, "save", file);
+            if (event.success) JOptionPane.showMessageDialog(this, "Game Saved!");
         }
     }
 
@@ -103,16 +122,217 @@ public class ChessFrame extends JFrame {
         JFileChooser chooser = new JFileChooser();
         if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
             File file = chooser.getSelectedFile();
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                Board loadedBoard = (Board) ois.readObject();
+            GameFileEvent event = new GameFileEvent();
+            event.begin();
+            try (InputStream in = new FileInputStream(file)) {
+                Board loadedBoard = SaveFile.readAny(in);
                 boardPanel.setBoard(loadedBoard);
                 historyPanel.clearHistory();
-                JOptionPane.showMessageDialog(this, "Game Loaded!");
-            } catch (IOException | ClassNotFoundException ex) {
+                event.success = true;
+            } catch (IOException ex) {
                 ex.printStackTrace();
                 JOptionPane.showMessageDialog(this, "Error loading game: " + ex.getMessage());
             }
+            commitFileEvent(event, "load", file);
+            if (event.success) JOptionPane.showMessageDialog(this, "Game Loaded!");
+        }
+    }
+
+    /**
+     * Ends a save or load event, leaving the confirmation dialog out of its duration.
+     */
+    private static void commitFileEvent(GameFileEvent event, String operation, File file) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.path = file.getPath();
+            event.bytes = file.length();
+            event.commit();
+        }
+    }
+
+    /**
+     * Sets up a position from a FEN string, offering the clipboard contents
+     * as the default.
+     */
+    private void pasteFen() {
+        String clip = "";
+        try {
+            Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+            if (clipboard.isDataFlavorAvailable(DataFlavor.stringFlavor)) {
+                clip = ((String) clipboard.getData(DataFlavor.stringFlavor)).trim();
+            }
+        } catch (UnsupportedFlavorException | IOException | IllegalStateException ex) {
+            // Clipboard unavailable; start with an empty field
+        }
+        String fen = (String) JOptionPane.showInputDialog(this, "Position (FEN):", "Paste FEN",
+                JOptionPane.PLAIN_MESSAGE, null, null, clip);
+        if (fen == null || fen.trim().isEmpty()) return;
+
+        Board board = new Board();
+        try {
+            board.loadFen(fen);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Paste FEN", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        boardPanel.setBoard(board);
+        historyPanel.clearHistory();
+    }
+
+    /**
+     * Puts the FEN of the current position on the clipboard.
+     */
+    private void copyFen() {
+        String fen = boardPanel.getBoard().toFen();
+        Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(fen), null);
+    }
+
+    /**
+     * Searches the current position for a forced mate in the background
+     * and shows the mating line.
+     */
+    private void findMate() {
+        String input = JOptionPane.showInputDialog(this, "Find mate in at most how many moves?", "3");
+        if (input == null) return;
+        int maxMoves;
+        try {
+            maxMoves = Integer.parseInt(input.trim());
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Please enter a number.");
+            return;
+        }
+
+        Board position = boardPanel.getBoard().copy();
+        menuBar.getFindMateItem().setEnabled(false);
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() {
+                MateSolver.Result r = new MateSolver().solve(position, maxMoves, 2_000_000);
+                if (!r.found) {
+                    return "No mate in " + maxMoves + " found (" + r.nodes + " nodes searched).";
+                }
+                StringBuilder line = new StringBuilder();
+                for (Move m : r.line) {
+                    line.append(San.toSan(position, m)).append(' ');
+                    position.makeMove(m);
+                }
+                return "Mate in " + r.mateIn + ": " + line.toString().trim();
+            }
+
+            @Override
+            protected void done() {
+                menuBar.getFindMateItem().setEnabled(true);
+                try {
+                    JOptionPane.showMessageDialog(ChessFrame.this, get(), "Find Mate",
+                            JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(ChessFrame.this, "Mate search failed: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Reviews every move of the current game in the background and
+     * annotates the move list with scores, better moves and error tags.
+     */
+    private void analyzeGame() {
+        Board board = boardPanel.getBoard();
+        List<Move> moves = board.getHistory();
+        if (moves.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "There are no moves to analyze.");
+            return;
+        }
+        String input = JOptionPane.showInputDialog(this, "Search depth per move?", "4");
+        if (input == null) return;
+        int depth;
+        try {
+            depth = Integer.parseInt(input.trim());
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Please enter a number.");
+            return;
+        }
+
+        Board start = board.copyAtStart();
+        List<Move> game = List.copyOf(moves);
+        int threads = Runtime.getRuntime().availableProcessors();
+        menuBar.getAnalyzeGameItem().setEnabled(false);
+        setTitle("Chess - analyzing 0 / " + (game.size() + 1));
+        new SwingWorker<List<GameAnalyzer.Annotation>, Integer>() {
+            @Override
+            protected List<GameAnalyzer.Annotation> doInBackground() throws Exception {
+                GameAnalyzer analyzer = new GameAnalyzer(depth, threads, 64);
+                AnalysisCache cache = openAnalysisCache();
+                analyzer.setCache(cache);
+                try {
+                    return analyzer.analyze(start, game, this::publish);
+                } finally {
+                    if (cache != null) cache.close();
+                }
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                setTitle("Chess - analyzing " + chunks.get(chunks.size() - 1) + " / " + (game.size() + 1));
+            }
+
+            @Override
+            protected void done() {
+                setTitle("Chess");
+                menuBar.getAnalyzeGameItem().setEnabled(true);
+                try {
+                    showAnalysis(get());
+                } catch (Exception ex) {
+                    JOptionPane.showMessageDialog(ChessFrame.this, "Analysis failed: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Opens the analysis cache in the user's home directory, so positions
+     * analyzed before are not searched again.
+     *
+     * @return the cache, or null if it cannot be opened
+     */
+    private static AnalysisCache openAnalysisCache() {
+        try {
+            return new AnalysisCache(new File(System.getProperty("user.home"), ".chess-analysis.cache").toPath(), 64);
+        } catch (IOException ex) {
+            return null; // analysis still works without it
+        }
+    }
+
+    /**
+     * Annotates the move list and shows a per-player summary.
+     * Games loaded from a file have no move list, so the full
+     * annotated game is shown in the summary instead.
+     */
+    private void showAnalysis(List<GameAnalyzer.Annotation> notes) {
+        int listed = historyPanel.getMoveList().getModel().getSize();
+        boolean inList = listed == notes.size();
+        int[][] counts = new int[2][3]; // [white, black][blunders, mistakes, inaccuracies]
+        StringBuilder text = new StringBuilder();
+        for (GameAnalyzer.Annotation a : notes) {
+            if (inList) historyPanel.annotateMove(a.ply, a.summary());
+            else text.append(a.ply / 2 + 1).append(a.ply % 2 == 0 ? ". " : "... ")
+                     .append(a.san).append("   ").append(a.summary()).append('\n');
+            if (a.tag == null) continue;
+            int kind = a.tag.equals("blunder") ? 0 : a.tag.equals("mistake") ? 1 : 2;
+            counts[a.ply % 2][kind]++;
+        }
+        text.append(String.format("White: %d blunders, %d mistakes, %d inaccuracies%n",
+                counts[0][0], counts[0][1], counts[0][2]));
+        text.append(String.format("Black: %d blunders, %d mistakes, %d inaccuracies",
+                counts[1][0], counts[1][1], counts[1][2]));
+
+        JTextArea area = new JTextArea(text.toString());
+        area.setEditable(false);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane scroll = new JScrollPane(area);
+        scroll.setPreferredSize(new Dimension(420, inList ? 60 : 400));
+        JOptionPane.showMessageDialog(this, scroll, "Game Analysis", JOptionPane.INFORMATION_MESSAGE);
     }
 
     public MoveHistoryPanel getHistoryPanel() { return historyPanel; }
@@ -7,16 +7,20 @@ import javax.swing.JMenuItem;
 /**
  * Represents the menu bar at the top of the chess game window.
  * Contains basic game options like starting a new game,
- * saving progress, and loading a saved game.
+ * saving progress, and loading a saved game, plus analysis tools.
  */
 public class MenuBarPanel extends JMenuBar {
     private JMenuItem newGameItem;
     private JMenuItem saveGameItem;
     private JMenuItem loadGameItem;
+    private JMenuItem pasteFenItem;
+    private JMenuItem copyFenItem;
+    private JMenuItem findMateItem;
+    private JMenuItem analyzeGameItem;
 
     /**
      * Builds the menu bar and adds the "File" menu
-     * with New Game, Save Game, and Load Game options.
+     * with New Game, Save Game, Load Game and FEN options.
      * (Functionality is connected later in the main frame.)
      */
     public MenuBarPanel() {
@@ -27,15 +31,28 @@ public class MenuBarPanel extends JMenuBar {
         newGameItem = new JMenuItem("New Game");
         saveGameItem = new JMenuItem("Save Game");
         loadGameItem = new JMenuItem("Load Game");
+        pasteFenItem = new JMenuItem("Paste FEN...");
+        copyFenItem = new JMenuItem("Copy FEN");
 
         // Add items to the File menu
         fileMenu.add(newGameItem);
         fileMenu.addSeparator();
         fileMenu.add(saveGameItem);
         fileMenu.add(loadGameItem);
+        fileMenu.addSeparator();
+        fileMenu.add(pasteFenItem);
+        fileMenu.add(copyFenItem);
+
+        // Create the Analysis menu
+        JMenu analysisMenu = new JMenu("Analysis");
+        findMateItem = new JMenuItem("Find Mate...");
+        analyzeGameItem = new JMenuItem("Analyze Game");
+        analysisMenu.add(findMateItem);
+        analysisMenu.add(analyzeGameItem);
 
-        // Add the menu to the menu bar
+        // Add the menus to the menu bar
         add(fileMenu);
+        add(analysisMenu);
     }
 
     /** @return the "New Game" menu item */
@@ -52,4 +69,24 @@ public class MenuBarPanel extends JMenuBar {
     public JMenuItem getLoadGameItem() {
         return loadGameItem;
     }
+
+    /** @return the "Paste FEN" menu item */
+    public JMenuItem getPasteFenItem() {
+        return pasteFenItem;
+    }
+
+    /** @return the "Copy FEN" menu item */
+    public JMenuItem getCopyFenItem() {
+        return copyFenItem;
+    }
+
+    /** @return the "Find Mate" menu item */
+    public JMenuItem getFindMateItem() {
+        return findMateItem;
+    }
+
+    /** @return the "Analyze Game" menu item */
+    public JMenuItem getAnalyzeGameItem() {
+        return analyzeGameItem;
+    }
 }
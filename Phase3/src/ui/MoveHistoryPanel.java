@@ -18,6 +18,8 @@ public class MoveHistoryPanel extends JPanel {
     private ArrayList<Piece> whiteCaptured; // Captured white pieces
     private ArrayList<Piece> blackCaptured; // Captured black pieces
 
+    private static final String NOTE_SEPARATOR = "   ";
+
     /**
      * Constructs the history panel with lists and buttons.
      */
@@ -150,6 +152,21 @@ public class MoveHistoryPanel extends JPanel {
         capturedBlackArea.setText("None");
     }
 
+    /**
+     * Appends an analysis note to a move already in the list,
+     * replacing any earlier note.
+     *
+     * @param index position of the move in the list
+     * @param note text to show after the move
+     */
+    public void annotateMove(int index, String note) {
+        if (index < 0 || index >= moveListModel.getSize()) return;
+        String move = moveListModel.get(index);
+        int cut = move.indexOf(NOTE_SEPARATOR);
+        if (cut >= 0) move = move.substring(0, cut);
+        moveListModel.set(index, move + NOTE_SEPARATOR + note);
+    }
+
     public JButton getUndoButton() {
         return undoButton;
     }